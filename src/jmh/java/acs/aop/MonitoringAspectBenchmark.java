@@ -0,0 +1,63 @@
+package acs.aop;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import acs.logic.database.DatabaseElementService;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/*
+ * What the aspect adds to a call, without the call itself. "legacy" repeats
+ * what it did before it had timers: the millisecond clock and a log message
+ * built whether or not debug is on. Run with -prof gc to see the allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonitoringAspectBenchmark {
+	private MonitoringAspect aspect;
+	private Method method;
+	private Log logger;
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		this.aspect = new MonitoringAspect(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+		this.method = DatabaseElementService.class.getMethod("getAll", String.class, String.class, int.class,
+				int.class);
+		this.logger = LogFactory.getLog(MonitoringAspectBenchmark.class);
+	}
+
+	@Benchmark
+	public String legacy() {
+		long beginTime = System.currentTimeMillis();
+		long elapsed = System.currentTimeMillis() - beginTime;
+		String message = DatabaseElementService.class.getSimpleName() + "." + this.method.getName()
+				+ "() - elapsed time: " + elapsed + "[ms]";
+		this.logger.debug(message);
+		return message;
+	}
+
+	@Benchmark
+	public void timer() {
+		long beginTime = System.nanoTime();
+		this.aspect.timerOf(this.method, DatabaseElementService.class).record(System.nanoTime() - beginTime,
+				TimeUnit.NANOSECONDS);
+	}
+}
@@ -0,0 +1,112 @@
+package acs.data;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Attribute (de)serialization per row. "legacy" repeats what the converter did
+ * before it shared its reader and writer: an ObjectMapper call with a new
+ * TypeReference every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributesFormatBenchmark {
+	private static final TypeReference<Map<String, Object>> ATTRIBUTES_TYPE = new TypeReference<Map<String, Object>>() {
+	};
+
+	@Param({ "json", "smile", "cbor" })
+	public String format;
+
+	private ObjectMapper legacyMapper;
+	private ObjectReader reader;
+	private ObjectWriter writer;
+	private MapToJsonConverter converter;
+	private Map<String, Object> attributes;
+	private String json;
+	private byte[] encoded;
+
+	@Setup
+	public void setup() throws IOException {
+		this.legacyMapper = new ObjectMapper();
+		ObjectMapper mapper;
+		switch (this.format) {
+		case "smile":
+			mapper = new ObjectMapper(new SmileFactory());
+			break;
+		case "cbor":
+			mapper = new ObjectMapper(new CBORFactory());
+			break;
+		default:
+			mapper = new ObjectMapper();
+		}
+		this.reader = mapper.readerFor(ATTRIBUTES_TYPE);
+		this.writer = mapper.writerFor(ATTRIBUTES_TYPE);
+		this.converter = new MapToJsonConverter();
+
+		// a food bowl as the clients send it
+		this.attributes = new TreeMap<>();
+		this.attributes.put("state", true);
+		this.attributes.put("animal", "dog");
+		this.attributes.put("brand", "bonzo");
+		this.attributes.put("weight", 5);
+		this.attributes.put("lastFillDate", "2026-10-17");
+		this.json = this.converter.convertToDatabaseColumn(this.attributes);
+		this.encoded = this.writer.writeValueAsBytes(this.attributes);
+	}
+
+	@Benchmark
+	public String legacyWrite() throws IOException {
+		return this.legacyMapper.writeValueAsString(this.attributes);
+	}
+
+	@Benchmark
+	public Map<String, Object> legacyRead() throws IOException {
+		return this.legacyMapper.readValue(this.json, new TypeReference<Map<String, Object>>() {
+		});
+	}
+
+	@Benchmark
+	public String converterWrite() {
+		return this.converter.convertToDatabaseColumn(this.attributes);
+	}
+
+	@Benchmark
+	public Map<String, Object> converterRead() {
+		return this.converter.convertToEntityAttribute(this.json);
+	}
+
+	@Benchmark
+	public byte[] formatWrite() throws IOException {
+		return this.writer.writeValueAsBytes(this.attributes);
+	}
+
+	@Benchmark
+	public Map<String, Object> formatRead() throws IOException {
+		return this.reader.readValue(this.encoded);
+	}
+}
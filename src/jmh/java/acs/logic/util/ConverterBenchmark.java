@@ -0,0 +1,86 @@
+package acs.logic.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import acs.boundaries.ElementBoundary;
+import acs.data.ElementEntity;
+import acs.data.details.ElementEntityId;
+import acs.data.details.UserEntityId;
+
+/*
+ * Per element conversion cost. The legacy benchmarks repeat what the converters
+ * did before DatePattern shared its formatters: a new SimpleDateFormat for every
+ * call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+	private ElementConverter elementConverter;
+	private ElementEntity elementEntity;
+	private ElementBoundary elementBoundary;
+	private Date date;
+	private String timestamp;
+
+	@Setup
+	public void setup() {
+		this.elementConverter = new ElementConverter();
+		this.date = new Date();
+		this.timestamp = DatePattern.format(this.date);
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("animal", "dog");
+		this.elementEntity = new ElementEntity(new ElementEntityId("benchmark", "1"), "feeding_area", "park", true,
+				DatePattern.toStoredTimestamp(this.date), new UserEntityId("benchmark", "manager@benchmark.com"), 32.1,
+				34.8, attributes);
+		this.elementBoundary = this.elementConverter.toBoundary(this.elementEntity);
+	}
+
+	@Benchmark
+	public String legacyFormat() {
+		return new SimpleDateFormat(DatePattern.pattern).format(this.date);
+	}
+
+	@Benchmark
+	public Date legacyParse() throws ParseException {
+		return new SimpleDateFormat(DatePattern.pattern).parse(this.timestamp);
+	}
+
+	@Benchmark
+	public String sharedFormat() {
+		return DatePattern.format(this.date);
+	}
+
+	@Benchmark
+	public Date sharedParse() {
+		return DatePattern.parse(this.timestamp);
+	}
+
+	@Benchmark
+	public ElementBoundary elementToBoundary() {
+		return this.elementConverter.toBoundary(this.elementEntity);
+	}
+
+	@Benchmark
+	public ElementEntity elementToEntity() {
+		return this.elementConverter.toEntity(this.elementBoundary);
+	}
+}
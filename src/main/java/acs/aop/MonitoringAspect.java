@@ -1,28 +1,49 @@
 package acs.aop;
 
-import javax.annotation.PostConstruct;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Times every @MonitorPerformance method into the "acs.method.latency" timer,
+ * tagged with class.method and published as a percentile histogram, so the
+ * prometheus endpoint can aggregate quantiles across instances. After the first
+ * call of a method its timer is a map lookup away and recording allocates
+ * nothing.
+ */
 @Component
 @Aspect
 public class MonitoringAspect {
+	public static final String TIMER_NAME = "acs.method.latency";
+
+	private MeterRegistry meterRegistry;
+	private Map<Method, Timer> timers;
 	private Log logger;
 
-	@PostConstruct
-	public void init() {
+	@Autowired
+	public MonitoringAspect(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.timers = new ConcurrentHashMap<>();
 		this.logger = LogFactory.getLog(MonitoringAspect.class);
 	}
 
 	@Around("@annotation(acs.aop.MonitorPerformance)")
 	public Object measureOverallElapsedTime(ProceedingJoinPoint joinPoint) throws Throwable {
 		// Pre-processing
-		long beginTime = System.currentTimeMillis();
+		long beginTime = System.nanoTime();
 
 		// Invoke the original method
 		try {
@@ -30,44 +51,25 @@ public class MonitoringAspect {
 			return rv;
 		} finally {
 			// Post-processing
-			long endTime = System.currentTimeMillis();
-			long elapsed = endTime - beginTime;
+			long elapsed = System.nanoTime() - beginTime;
+			Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+			Timer timer = timerOf(method, joinPoint.getTarget().getClass());
+			timer.record(elapsed, TimeUnit.NANOSECONDS);
 
-			// Add the name of the class and its method
-			String fullyQualifiedNameOfClass = joinPoint.getTarget().getClass() // java.lang.Class
-					.getSimpleName(); // Java Reflection
-
-			// Add the method name to output
-			String methodName = joinPoint.getSignature().getName();
-			// print message to debug of the log
-			this.logger.debug(fullyQualifiedNameOfClass + "." + methodName + "() - elapsed time: " + elapsed + "[ms]");
+			// the message is only built when someone reads it
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug(timer.getId().getTag("method") + "() - elapsed time: " + elapsed + "[ns]");
+			}
 		}
 	}
-	
-	
-	@Around("@annotation(acs.aop.ValidateRole)")
-	public Object validateRole(ProceedingJoinPoint joinPoint) throws Throwable {
-		// Pre-processing
-		long beginTime = System.currentTimeMillis();
 
-		// Invoke the original method
-		try {
-			Object rv = joinPoint.proceed();
-			return rv;
-		} finally {
-			// Post-processing
-			long endTime = System.currentTimeMillis();
-			long elapsed = endTime - beginTime;
-
-			// Add the name of the class and its method
-			String fullyQualifiedNameOfClass = joinPoint.getTarget().getClass() // java.lang.Class
-					.getSimpleName(); // Java Reflection
-
-			// Add the method name to output
-			String methodName = joinPoint.getSignature().getName();
-			// print message to debug of the log
-			this.logger.debug(fullyQualifiedNameOfClass + "." + methodName + "() - elapsed time: " + elapsed + "[ms]");
+	public Timer timerOf(Method method, Class<?> targetClass) {
+		Timer timer = this.timers.get(method);
+		if (timer == null) {
+			timer = this.timers.computeIfAbsent(method,
+					m -> Timer.builder(TIMER_NAME).tag("method", targetClass.getSimpleName() + "." + m.getName())
+							.publishPercentileHistogram().register(this.meterRegistry));
 		}
+		return timer;
 	}
-
 }
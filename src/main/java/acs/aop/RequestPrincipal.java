@@ -0,0 +1,43 @@
+package acs.aop;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import acs.data.UserEntity;
+import acs.data.UserRole;
+import acs.data.details.UserEntityId;
+
+/*
+ * Holds the caller resolved by @ValidateRole for the current HTTP request. The
+ * user is kept as a request attribute, so outside of a request (scheduled or
+ * async work) there is simply no principal.
+ */
+@Component
+public class RequestPrincipal {
+	private static final String ATTRIBUTE = RequestPrincipal.class.getName();
+
+	public UserEntity getUser() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return null;
+		}
+		return (UserEntity) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+	}
+
+	public void setUser(UserEntity user) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes != null) {
+			attributes.setAttribute(ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+
+	// returns the role of the given user if it is the principal, null otherwise
+	public UserRole getRoleOf(UserEntityId userId) {
+		UserEntity user = getUser();
+		if (user != null && user.getId().equals(userId)) {
+			return user.getRole();
+		}
+		return null;
+	}
+}
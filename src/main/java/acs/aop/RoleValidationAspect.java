@@ -0,0 +1,79 @@
+package acs.aop;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import acs.boundaries.ActionBoundary;
+import acs.boundaries.details.UserId;
+import acs.data.UserEntity;
+import acs.logic.DBUserService;
+import acs.logic.database.exceptions.RoleMismatchException;
+
+@Component
+@Aspect
+public class RoleValidationAspect {
+	private static final String[][] CALLER_PATH_VARIABLES = { { "userDomain", "userEmail" },
+			{ "managerDomain", "managerEmail" }, { "adminDomain", "adminEmail" } };
+
+	private DBUserService userService;
+
+	@Autowired
+	public RoleValidationAspect(DBUserService userService) {
+		this.userService = userService;
+	}
+
+	@Around("@annotation(validateRole)")
+	public Object validateRole(ProceedingJoinPoint joinPoint, ValidateRole validateRole) throws Throwable {
+		UserId caller = findCaller(joinPoint);
+		String methodName = joinPoint.getSignature().getName();
+		if (caller == null) {
+			throw new RoleMismatchException(new UserId(), methodName);
+		}
+
+		// resolves and stores the principal of the current request
+		UserEntity user = this.userService.authenticate(caller.getDomain(), caller.getEmail()).orElse(null);
+		if (user == null || !Arrays.asList(validateRole.value()).contains(user.getRole())) {
+			throw new RoleMismatchException(caller, methodName);
+		}
+		return joinPoint.proceed();
+	}
+
+	@SuppressWarnings("unchecked")
+	private UserId findCaller(ProceedingJoinPoint joinPoint) {
+		if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes) {
+			HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
+					.getRequest();
+			Map<String, String> pathVariables = (Map<String, String>) request
+					.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+			if (pathVariables != null) {
+				for (String[] names : CALLER_PATH_VARIABLES) {
+					if (pathVariables.containsKey(names[0]) && pathVariables.containsKey(names[1])) {
+						return new UserId(pathVariables.get(names[0]), pathVariables.get(names[1]));
+					}
+				}
+			}
+		}
+
+		// actions carry their invoker in the request body
+		for (Object arg : joinPoint.getArgs()) {
+			if (arg instanceof ActionBoundary) {
+				ActionBoundary action = (ActionBoundary) arg;
+				if (action.getInvokedBy() != null) {
+					return action.getInvokedBy().getUserId();
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -6,8 +6,11 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
+import acs.data.UserRole;
+
 @Retention(RUNTIME)
 @Target(METHOD)
 public @interface ValidateRole {
-
-}
\ No newline at end of file
+	// the roles allowed to invoke the annotated method
+	UserRole[] value();
+}
@@ -0,0 +1,67 @@
+package acs.boundaries;
+
+public class ActionQueueBoundary {
+	private long pending;
+	private long processing;
+	private long failed;
+	private int maxQueueDepth;
+	private long rejected;
+
+	public ActionQueueBoundary() {
+
+	}
+
+	public ActionQueueBoundary(long pending, long processing, long failed, int maxQueueDepth, long rejected) {
+		this.pending = pending;
+		this.processing = processing;
+		this.failed = failed;
+		this.maxQueueDepth = maxQueueDepth;
+		this.rejected = rejected;
+	}
+
+	public long getPending() {
+		return pending;
+	}
+
+	public void setPending(long pending) {
+		this.pending = pending;
+	}
+
+	public long getProcessing() {
+		return processing;
+	}
+
+	public void setProcessing(long processing) {
+		this.processing = processing;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	public void setMaxQueueDepth(int maxQueueDepth) {
+		this.maxQueueDepth = maxQueueDepth;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+	@Override
+	public String toString() {
+		return "ActionQueueBoundary [pending=" + pending + ", processing=" + processing + ", failed=" + failed
+				+ ", maxQueueDepth=" + maxQueueDepth + ", rejected=" + rejected + "]";
+	}
+}
@@ -0,0 +1,59 @@
+package acs.boundaries;
+
+import acs.boundaries.details.ActionId;
+
+public class ActionResultBoundary {
+	private int index;
+	private ActionId actionId;
+	private String status;
+	private String message;
+
+	public ActionResultBoundary() {
+
+	}
+
+	public ActionResultBoundary(int index, ActionId actionId, String status, String message) {
+		this.index = index;
+		this.actionId = actionId;
+		this.status = status;
+		this.message = message;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public ActionId getActionId() {
+		return actionId;
+	}
+
+	public void setActionId(ActionId actionId) {
+		this.actionId = actionId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "ActionResultBoundary [index=" + index + ", actionId=" + actionId + ", status=" + status + ", message="
+				+ message + "]";
+	}
+}
@@ -0,0 +1,83 @@
+package acs.boundaries;
+
+import java.util.Date;
+
+import acs.boundaries.details.ActionId;
+
+public class ActionStatusBoundary {
+	private ActionId actionId;
+	private String status;
+	private int attempts;
+	private String message;
+	private Date enqueuedTimestamp;
+	private Date completedTimestamp;
+
+	public ActionStatusBoundary() {
+
+	}
+
+	public ActionStatusBoundary(ActionId actionId, String status, int attempts, String message, Date enqueuedTimestamp,
+			Date completedTimestamp) {
+		this.actionId = actionId;
+		this.status = status;
+		this.attempts = attempts;
+		this.message = message;
+		this.enqueuedTimestamp = enqueuedTimestamp;
+		this.completedTimestamp = completedTimestamp;
+	}
+
+	public ActionId getActionId() {
+		return actionId;
+	}
+
+	public void setActionId(ActionId actionId) {
+		this.actionId = actionId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public Date getEnqueuedTimestamp() {
+		return enqueuedTimestamp;
+	}
+
+	public void setEnqueuedTimestamp(Date enqueuedTimestamp) {
+		this.enqueuedTimestamp = enqueuedTimestamp;
+	}
+
+	public Date getCompletedTimestamp() {
+		return completedTimestamp;
+	}
+
+	public void setCompletedTimestamp(Date completedTimestamp) {
+		this.completedTimestamp = completedTimestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "ActionStatusBoundary [actionId=" + actionId + ", status=" + status + ", attempts=" + attempts
+				+ ", message=" + message + ", enqueuedTimestamp=" + enqueuedTimestamp + ", completedTimestamp="
+				+ completedTimestamp + "]";
+	}
+}
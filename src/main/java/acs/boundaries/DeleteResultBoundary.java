@@ -0,0 +1,26 @@
+package acs.boundaries;
+
+public class DeleteResultBoundary {
+	private long deleted;
+
+	public DeleteResultBoundary() {
+
+	}
+
+	public DeleteResultBoundary(long deleted) {
+		this.deleted = deleted;
+	}
+
+	public long getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(long deleted) {
+		this.deleted = deleted;
+	}
+
+	@Override
+	public String toString() {
+		return "DeleteResultBoundary [deleted=" + deleted + "]";
+	}
+}
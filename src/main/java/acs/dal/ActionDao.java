@@ -1,11 +1,68 @@
 package acs.dal;
 
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import acs.data.ActionEntity;
 import acs.data.details.ActionEntityId;
 
 public interface ActionDao extends PagingAndSortingRepository<ActionEntity, ActionEntityId> {
+	// keyset pagination over a [from, to) window: rows strictly after
+	// (afterCreated, domain, id) in creation order, so every page is a range scan
+	// of one of the *_created_idx indexes
+	public static final String CREATED_AFTER = "a.createdTimestamp >= :from AND a.createdTimestamp < :to "
+			+ "AND (:type IS NULL OR a.type = :type) AND (a.createdTimestamp > :afterCreated "
+			+ "OR (a.createdTimestamp = :afterCreated AND (a.actionId.actionDomain > :domain "
+			+ "OR (a.actionId.actionDomain = :domain AND a.actionId.actionId > :id))))";
+	public static final String ORDER_BY_CREATED = " ORDER BY a.createdTimestamp, a.actionId.actionDomain, "
+			+ "a.actionId.actionId";
+
+	@Query("SELECT a FROM ActionEntity a WHERE a.actionId.actionDomain > :domain OR (a.actionId.actionDomain = :domain "
+			+ "AND a.actionId.actionId > :id) ORDER BY a.actionId.actionDomain, a.actionId.actionId")
+	public List<ActionEntity> findAllAfter(@Param("domain") String domain, @Param("id") String id, Pageable pageable);
+
+	// served by actions_created_idx
+	@Query("SELECT a FROM ActionEntity a WHERE a.createdTimestamp >= :from AND a.createdTimestamp < :to")
+	public List<ActionEntity> findAllCreatedBetween(@Param("from") Date from, @Param("to") Date to,
+			Pageable pageable);
+
+	@Query("SELECT a FROM ActionEntity a WHERE a.element.elementDomain = :elementDomain "
+			+ "AND a.element.elementId = :elementId AND " + CREATED_AFTER + ORDER_BY_CREATED)
+	public List<ActionEntity> findAllByElementCreatedAfter(@Param("elementDomain") String elementDomain,
+			@Param("elementId") String elementId, @Param("type") String type, @Param("from") Date from,
+			@Param("to") Date to, @Param("afterCreated") Date afterCreated, @Param("domain") String domain,
+			@Param("id") String id, Pageable pageable);
+
+	@Query("SELECT a FROM ActionEntity a WHERE a.invokedBy.userDomain = :userDomain "
+			+ "AND a.invokedBy.email = :email AND " + CREATED_AFTER + ORDER_BY_CREATED)
+	public List<ActionEntity> findAllByInvokerCreatedAfter(@Param("userDomain") String userDomain,
+			@Param("email") String email, @Param("type") String type, @Param("from") Date from,
+			@Param("to") Date to, @Param("afterCreated") Date afterCreated, @Param("domain") String domain,
+			@Param("id") String id, Pageable pageable);
+
+	@Query("SELECT a FROM ActionEntity a WHERE " + CREATED_AFTER + ORDER_BY_CREATED)
+	public List<ActionEntity> findAllByTypeCreatedAfter(@Param("type") String type, @Param("from") Date from,
+			@Param("to") Date to, @Param("afterCreated") Date afterCreated, @Param("domain") String domain,
+			@Param("id") String id, Pageable pageable);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM ActionEntity")
+	public int deleteAllInBulk();
 
+	// Integer.MIN_VALUE makes MySQL Connector/J stream rows one at a time instead
+	// of buffering the whole result set; the stream must be consumed and closed
+	// inside a transaction
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE))
+	@Query("SELECT a FROM ActionEntity a")
+	public Stream<ActionEntity> streamAll();
 }
@@ -0,0 +1,53 @@
+package acs.dal;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import acs.data.ActionOutboxEntity;
+import acs.data.ActionStatus;
+import acs.data.details.ActionEntityId;
+
+public interface ActionOutboxDao extends PagingAndSortingRepository<ActionOutboxEntity, ActionEntityId> {
+	// pending entries, and claimed ones whose lease ran out before they were done;
+	// entries claimed before leases existed have none and count as expired
+	public static final String CLAIMABLE = "(o.status = acs.data.ActionStatus.PENDING "
+			+ "OR (o.status = acs.data.ActionStatus.PROCESSING "
+			+ "AND (o.leaseExpiresTimestamp IS NULL OR o.leaseExpiresTimestamp < :now)))";
+
+	public long countByStatus(@Param("status") ActionStatus status);
+
+	@Query("SELECT o FROM ActionOutboxEntity o WHERE " + CLAIMABLE + " ORDER BY o.enqueuedTimestamp")
+	public List<ActionOutboxEntity> findAllClaimable(@Param("now") Date now, Pageable pageable);
+
+	// conditional, so only one instance can hold the lease on an entry
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE ActionOutboxEntity o SET o.status = acs.data.ActionStatus.PROCESSING, o.claimedBy = :owner, "
+			+ "o.leaseExpiresTimestamp = :leaseExpires WHERE o.actionId = :actionId AND " + CLAIMABLE)
+	public int claim(@Param("actionId") ActionEntityId actionId, @Param("owner") String owner,
+			@Param("leaseExpires") Date leaseExpires, @Param("now") Date now);
+
+	// succeeds only for the lease holder, in the transaction of the action's effects
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE ActionOutboxEntity o SET o.status = :status, o.attempts = o.attempts + 1, o.message = :message, "
+			+ "o.completedTimestamp = :completed, o.claimedBy = NULL, o.leaseExpiresTimestamp = NULL "
+			+ "WHERE o.actionId = :actionId AND o.status = acs.data.ActionStatus.PROCESSING AND o.claimedBy = :owner")
+	public int release(@Param("actionId") ActionEntityId actionId, @Param("owner") String owner,
+			@Param("status") ActionStatus status, @Param("message") String message,
+			@Param("completed") Date completed);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE ActionOutboxEntity o SET o.status = acs.data.ActionStatus.PENDING, o.claimedBy = NULL, "
+			+ "o.leaseExpiresTimestamp = NULL WHERE o.status = acs.data.ActionStatus.PROCESSING "
+			+ "AND (o.leaseExpiresTimestamp IS NULL OR o.leaseExpiresTimestamp < :now)")
+	public int requeueExpiredLeases(@Param("now") Date now);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM ActionOutboxEntity")
+	public int deleteAllInBulk();
+}
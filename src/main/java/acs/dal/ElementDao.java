@@ -1,47 +1,179 @@
 package acs.dal;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
 import acs.data.ElementEntity;
+import acs.data.ElementView;
 import acs.data.details.ElementEntityId;
 
-public interface ElementDao extends PagingAndSortingRepository<ElementEntity, ElementEntityId> {
+public interface ElementDao extends PagingAndSortingRepository<ElementEntity, ElementEntityId>, ElementDaoCustom {
+	// keyset pagination: rows strictly after (domain, id) in id order, so a deep
+	// page costs the same index range scan as the first one
+	public static final String AFTER = "(e.elementId.elementDomain > :domain OR (e.elementId.elementDomain = :domain "
+			+ "AND e.elementId.elementId > :id)) AND (:activeOnly = false OR e.active = true)";
+	public static final String ORDER_BY_ID = " ORDER BY e.elementId.elementDomain, e.elementId.elementId";
+
+	// the element and everything below it; UNION drops rows already reached, so
+	// a cycle of bindings ends the recursion instead of looping
+	public static final String SUBTREE = "WITH RECURSIVE subtree (element_domain, element_id) AS ("
+			+ "SELECT element_domain, element_id FROM elements WHERE element_domain = :elementDomain "
+			+ "AND element_id = :elementId UNION SELECT e.element_domain, e.element_id FROM elements e "
+			+ "JOIN subtree s ON e.father_element_domain = s.element_domain AND e.father_element_id = s.element_id) ";
+
+	// listings read straight into ElementView, nothing enters the persistence context
+	public static final String SELECT_VIEW = "SELECT new acs.data.ElementView(e.elementId.elementDomain, "
+			+ "e.elementId.elementId, e.type, e.name, e.active, e.createdTimestamp, e.createdBy.userDomain, "
+			+ "e.createdBy.email, e.lat, e.lng, e.elementAttributesJson, e.fullFoodBowl, e.fullWaterBowl) "
+			+ "FROM ElementEntity e WHERE (:activeOnly = false OR e.active = true)";
+
 	public Slice<ElementEntity> findByActiveTrue(Pageable pageable);
 
+	@Query(SELECT_VIEW + ORDER_BY_ID)
+	public List<ElementView> findAllViews(@Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	@Query(SELECT_VIEW + " AND e.name LIKE :name" + ORDER_BY_ID)
+	public List<ElementView> findAllViewsByNameLike(@Param("name") String name,
+			@Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	@Query(SELECT_VIEW + " AND e.type LIKE :type" + ORDER_BY_ID)
+	public List<ElementView> findAllViewsByTypeLike(@Param("type") String type,
+			@Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	// a null type matches every type
+	@Query(SELECT_VIEW + " AND e.lat BETWEEN :latNagative AND :latPositive AND e.lng BETWEEN :lngNagative "
+			+ "AND :lngPositive AND (:type IS NULL OR e.type LIKE :type)" + ORDER_BY_ID)
+	public List<ElementView> findAllViewsNearBy(@Param("latNagative") Double latNagative,
+			@Param("latPositive") Double latPositive, @Param("lngNagative") Double lngNagative,
+			@Param("lngPositive") Double lngPositive, @Param("type") String type,
+			@Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	// served by elements_created_idx
+	@Query("SELECT e FROM ElementEntity e WHERE e.createdTimestamp >= :from AND e.createdTimestamp < :to "
+			+ "AND (:activeOnly = false OR e.active = true)")
+	public List<ElementEntity> findAllCreatedBetween(@Param("from") Date from, @Param("to") Date to,
+			@Param("activeOnly") boolean activeOnly, Pageable pageable);
+
 	public List<ElementEntity> findAllByFather_ElementId(@Param("fatherId") ElementEntityId fatherId,
 			Pageable pageable);
 
 	public List<ElementEntity> findAllByFather_ElementIdAndActiveTrue(@Param("fatherId") ElementEntityId fatherId,
 			Pageable pageable);
 
-	public List<ElementEntity> findAllByNameLike(@Param("name") String name, Pageable pageable);
+	// what ActiveElementGrid keeps of an element: active, type, lat and lng
+	@Query("SELECT e.active, e.type, e.lat, e.lng FROM ElementEntity e WHERE e.elementId = :elementId")
+	public List<Object[]> findGridState(@Param("elementId") ElementEntityId elementId);
 
-	public List<ElementEntity> findAllByNameLikeAndActiveTrue(@Param("name") String name, Pageable pageable);
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = "UPDATE elements SET full_food_bowl = GREATEST(COALESCE(full_food_bowl, 0) + :fullFoodBowlDelta, 0), "
+			+ "full_water_bowl = GREATEST(COALESCE(full_water_bowl, 0) + :fullWaterBowlDelta, 0) "
+			+ "WHERE element_domain = :elementDomain AND element_id = :elementId AND type = :feedingAreaType", nativeQuery = true)
+	public int addToBowlCounters(@Param("elementDomain") String elementDomain, @Param("elementId") String elementId,
+			@Param("feedingAreaType") String feedingAreaType, @Param("fullFoodBowlDelta") int fullFoodBowlDelta,
+			@Param("fullWaterBowlDelta") int fullWaterBowlDelta);
 
-	public List<ElementEntity> findAllByTypeLike(@Param("type") String type, Pageable pageable);
+	// the counters a PUT replaces, set on their own since a save never writes them
+	@Modifying(flushAutomatically = true)
+	@Query(value = "UPDATE elements SET full_food_bowl = :fullFoodBowl, full_water_bowl = :fullWaterBowl "
+			+ "WHERE element_domain = :elementDomain AND element_id = :elementId", nativeQuery = true)
+	public int setBowlCounters(@Param("elementDomain") String elementDomain, @Param("elementId") String elementId,
+			@Param("fullFoodBowl") Integer fullFoodBowl, @Param("fullWaterBowl") Integer fullWaterBowl);
 
-	public List<ElementEntity> findAllByTypeLikeAndActiveTrue(@Param("type") String type, Pageable pageable);
+	@Query(value = SUBTREE + "SELECT e.element_domain, e.element_id FROM elements e JOIN subtree s "
+			+ "ON e.element_domain = s.element_domain AND e.element_id = s.element_id WHERE e.active = true", nativeQuery = true)
+	public List<Object[]> findActiveSubtreeIds(@Param("elementDomain") String elementDomain,
+			@Param("elementId") String elementId);
 
-	public List<ElementEntity> findByLatBetweenAndLngBetween(@Param("latNagative") Double latNagative,
-			@Param("latPositive") Double latPositive, @Param("lngNagative") Double lngNagative,
-			@Param("lngPositive") Double lngPositive, Pageable pageable);
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = SUBTREE + "UPDATE elements e JOIN subtree s ON e.element_domain = s.element_domain "
+			+ "AND e.element_id = s.element_id SET e.active = false WHERE e.active = true", nativeQuery = true)
+	public int deactivateSubtree(@Param("elementDomain") String elementDomain, @Param("elementId") String elementId);
 
-	public List<ElementEntity> findByLatBetweenAndLngBetweenAndActiveTrue(@Param("latNagative") Double latNagative,
-			@Param("latPositive") Double latPositive, @Param("lngNagative") Double lngNagative,
-			@Param("lngPositive") Double lngPositive, Pageable pageable);
+	// one join on the primary key, the child itself is never loaded
+	@Query("SELECT f FROM ElementEntity c JOIN c.father f WHERE c.elementId = :childId")
+	public Optional<ElementEntity> findFatherOf(@Param("childId") ElementEntityId childId);
 
-	public List<ElementEntity> findByLatBetweenAndLngBetweenAndTypeLike(@Param("latNagative") Double latNagative,
-			@Param("latPositive") Double latPositive, @Param("lngNagative") Double lngNagative,
-			@Param("lngPositive") Double lngPositive, @Param("type") String type, Pageable pageable);
+	// locks both rows in primary key order, so binds over the same two elements
+	// queue behind each other instead of deadlocking
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT e FROM ElementEntity e WHERE e.elementId = :firstId OR e.elementId = :secondId" + ORDER_BY_ID)
+	public List<ElementEntity> findBothForUpdate(@Param("firstId") ElementEntityId firstId,
+			@Param("secondId") ElementEntityId secondId);
 
-	public List<ElementEntity> findByLatBetweenAndLngBetweenAndTypeLikeAndActiveTrue(
-			@Param("latNagative") Double latNagative, @Param("latPositive") Double latPositive,
-			@Param("lngNagative") Double lngNagative, @Param("lngPositive") Double lngPositive,
-			@Param("type") String type, Pageable pageable);
+	// sets the foreign key on the child row without loading the father's children
+	@Modifying(flushAutomatically = true)
+	@Query(value = "UPDATE elements SET father_element_domain = :fatherDomain, father_element_id = :fatherId "
+			+ "WHERE element_domain = :childDomain AND element_id = :childId", nativeQuery = true)
+	public int bindToFather(@Param("fatherDomain") String fatherDomain, @Param("fatherId") String fatherId,
+			@Param("childDomain") String childDomain, @Param("childId") String childId);
 
+	// served by elements_ancestry_idx as a prefix range scan
+	@Query("SELECT e FROM ElementEntity e WHERE e.ancestryPath LIKE :pattern AND e.ancestryDepth > :fromDepth "
+			+ "AND e.ancestryDepth <= :toDepth AND (:activeOnly = false OR e.active = true) "
+			+ "ORDER BY e.ancestryDepth, e.elementId.elementDomain, e.elementId.elementId")
+	public List<ElementEntity> findAllInSubtree(@Param("pattern") String pattern, @Param("fromDepth") int fromDepth,
+			@Param("toDepth") int toDepth, @Param("activeOnly") boolean activeOnly);
+
+	@Query("SELECT MAX(LENGTH(e.ancestryPath)) FROM ElementEntity e WHERE e.ancestryPath LIKE :pattern")
+	public Integer findLongestPathInSubtree(@Param("pattern") String pattern);
+
+	// rewrites the path prefix of an element and everything below it
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = "UPDATE elements SET ancestry_path = CONCAT(:newPath, SUBSTRING(ancestry_path, :oldPathLength + 1)), "
+			+ "ancestry_depth = ancestry_depth + :depthDelta WHERE ancestry_path LIKE :pattern", nativeQuery = true)
+	public int moveSubtree(@Param("pattern") String pattern, @Param("oldPathLength") int oldPathLength,
+			@Param("newPath") String newPath, @Param("depthDelta") int depthDelta);
+
+	// the self reference is cut in bulk first, since InnoDB checks the father
+	// foreign key row by row and a single DELETE could remove a father before
+	// its children
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE ElementEntity e SET e.father = NULL WHERE e.father IS NOT NULL")
+	public int detachAllFromFathers();
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM ElementEntity")
+	public int deleteAllInBulk();
+
+	@Query("SELECT e FROM ElementEntity e WHERE " + AFTER + ORDER_BY_ID)
+	public List<ElementEntity> findAllAfter(@Param("domain") String domain, @Param("id") String id,
+			@Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	@Query("SELECT e FROM ElementEntity e WHERE e.father.elementId = :fatherId AND " + AFTER + ORDER_BY_ID)
+	public List<ElementEntity> findAllByFatherAfter(@Param("fatherId") ElementEntityId fatherId,
+			@Param("domain") String domain, @Param("id") String id, @Param("activeOnly") boolean activeOnly,
+			Pageable pageable);
+
+	@Query("SELECT e FROM ElementEntity e WHERE e.name LIKE :name AND " + AFTER + ORDER_BY_ID)
+	public List<ElementEntity> findAllByNameLikeAfter(@Param("name") String name, @Param("domain") String domain,
+			@Param("id") String id, @Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	@Query("SELECT e FROM ElementEntity e WHERE e.type LIKE :type AND " + AFTER + ORDER_BY_ID)
+	public List<ElementEntity> findAllByTypeLikeAfter(@Param("type") String type, @Param("domain") String domain,
+			@Param("id") String id, @Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	@Query("SELECT e FROM ElementEntity e WHERE e.lat BETWEEN :latNagative AND :latPositive "
+			+ "AND e.lng BETWEEN :lngNagative AND :lngPositive AND " + AFTER + ORDER_BY_ID)
+	public List<ElementEntity> findAllNearByAfter(@Param("latNagative") Double latNagative,
+			@Param("latPositive") Double latPositive, @Param("lngNagative") Double lngNagative,
+			@Param("lngPositive") Double lngPositive, @Param("domain") String domain, @Param("id") String id,
+			@Param("activeOnly") boolean activeOnly, Pageable pageable);
+
+	@Query("SELECT e FROM ElementEntity e WHERE e.lat BETWEEN :latNagative AND :latPositive "
+			+ "AND e.lng BETWEEN :lngNagative AND :lngPositive AND e.type LIKE :type AND " + AFTER + ORDER_BY_ID)
+	public List<ElementEntity> findAllNearByAndTypeLikeAfter(@Param("latNagative") Double latNagative,
+			@Param("latPositive") Double latPositive, @Param("lngNagative") Double lngNagative,
+			@Param("lngPositive") Double lngPositive, @Param("type") String type, @Param("domain") String domain,
+			@Param("id") String id, @Param("activeOnly") boolean activeOnly, Pageable pageable);
 }
@@ -0,0 +1,19 @@
+package acs.dal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import acs.data.ElementEntity;
+import acs.data.details.ElementEntityId;
+
+public interface ElementDaoCustom {
+	public List<ElementEntity> findAllWithinRadius(Collection<String> cells, double lat, double lng,
+			double distanceMeters, String type, boolean activeOnly, int size, int page);
+
+	public List<ElementEntity> findAllByIndexedAttribute(String column, String value, String type, boolean activeOnly,
+			int size, int page);
+
+	public int patch(ElementEntityId elementId, Map<String, Object> columns, String attributesPatch,
+			String feedingAreaType, String feedingAreaAttributesPatch, Map<String, Integer> counters);
+}
@@ -0,0 +1,122 @@
+package acs.dal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import acs.data.ElementEntity;
+import acs.data.GeoHash;
+import acs.data.details.ElementEntityId;
+
+public class ElementDaoCustomImpl implements ElementDaoCustom {
+	private static final Map<String, String> COUNTER_COLUMNS = new HashMap<>();
+	static {
+		COUNTER_COLUMNS.put("fullFoodBowl", "full_food_bowl");
+		COUNTER_COLUMNS.put("fullWaterBowl", "full_water_bowl");
+	}
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/*
+	 * One indexed prefix range per cell, OR-ed together, narrows the rows down to
+	 * the cells around the point; the distance, the same haversine as
+	 * GeoHash.distanceMeters, then filters and orders them, and only the page is
+	 * read. The cells must cover the circle and must not be empty.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<ElementEntity> findAllWithinRadius(Collection<String> cells, double lat, double lng,
+			double distanceMeters, String type, boolean activeOnly, int size, int page) {
+		String distance = "2 * :earthRadius * ASIN(LEAST(1, SQRT(POW(SIN(RADIANS(e.lat - :lat) / 2), 2) "
+				+ "+ COS(RADIANS(:lat)) * COS(RADIANS(e.lat)) * POW(SIN(RADIANS(e.lng - :lng) / 2), 2))))";
+		List<String> prefixes = new ArrayList<>();
+		for (int i = 0; i < cells.size(); i++) {
+			prefixes.add("e.geohash LIKE :cell" + i);
+		}
+		StringBuilder sql = new StringBuilder("SELECT e.* FROM elements e WHERE (")
+				.append(String.join(" OR ", prefixes)).append(") AND ").append(distance).append(" <= :distance");
+		if (type != null) {
+			sql.append(" AND e.type LIKE :type");
+		}
+		if (activeOnly) {
+			sql.append(" AND e.active = true");
+		}
+		sql.append(" ORDER BY ").append(distance).append(", e.element_domain, e.element_id");
+		Query query = this.entityManager.createNativeQuery(sql.toString(), ElementEntity.class)
+				.setParameter("earthRadius", GeoHash.EARTH_RADIUS_METERS).setParameter("lat", lat)
+				.setParameter("lng", lng).setParameter("distance", distanceMeters).setFirstResult(page * size)
+				.setMaxResults(size);
+		int i = 0;
+		for (String cell : cells) {
+			query.setParameter("cell" + i++, cell + "%");
+		}
+		if (type != null) {
+			query.setParameter("type", type);
+		}
+		return query.getResultList();
+	}
+
+	/*
+	 * The column is one of the generated attribute columns, it cannot be a bind
+	 * parameter. An equality on it is answered by its index.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<ElementEntity> findAllByIndexedAttribute(String column, String value, String type, boolean activeOnly,
+			int size, int page) {
+		StringBuilder sql = new StringBuilder("SELECT e.* FROM elements e WHERE e.").append(column).append(" = :value");
+		if (type != null) {
+			sql.append(" AND e.type = :type");
+		}
+		if (activeOnly) {
+			sql.append(" AND e.active = true");
+		}
+		sql.append(" ORDER BY e.element_domain, e.element_id");
+		Query query = this.entityManager.createNativeQuery(sql.toString(), ElementEntity.class)
+				.setParameter("value", value).setFirstResult(page * size).setMaxResults(size);
+		if (type != null) {
+			query.setParameter("type", type);
+		}
+		return query.getResultList();
+	}
+
+	/*
+	 * A PATCH as one UPDATE, the row is never loaded. MySQL assigns left to right,
+	 * so after a type change the feeding area checks already see the new type.
+	 * The attributes are merged as a JSON merge patch, a null value removes an
+	 * attribute; on an element of feedingAreaType the counters go to their
+	 * columns instead.
+	 */
+	@Override
+	public int patch(ElementEntityId elementId, Map<String, Object> columns, String attributesPatch,
+			String feedingAreaType, String feedingAreaAttributesPatch, Map<String, Integer> counters) {
+		List<String> assignments = new ArrayList<>();
+		columns.keySet().forEach(column -> assignments.add(column + " = :" + column));
+		counters.keySet().forEach(counter -> assignments.add(COUNTER_COLUMNS.get(counter)
+				+ " = IF(type = :feedingAreaType, :" + counter + ", " + COUNTER_COLUMNS.get(counter) + ")"));
+		if (attributesPatch != null) {
+			assignments.add("element_attributes = JSON_MERGE_PATCH(COALESCE(element_attributes, '{}'), "
+					+ "IF(type = :feedingAreaType, :feedingAreaAttributesPatch, :attributesPatch))");
+		}
+		Query query = this.entityManager.createNativeQuery("UPDATE elements SET " + String.join(", ", assignments)
+				+ " WHERE element_domain = :elementDomain AND element_id = :elementId")
+				.setParameter("elementDomain", elementId.getDomain()).setParameter("elementId", elementId.getId());
+		columns.forEach(query::setParameter);
+		counters.forEach(query::setParameter);
+		if (!counters.isEmpty() || attributesPatch != null) {
+			query.setParameter("feedingAreaType", feedingAreaType);
+		}
+		if (attributesPatch != null) {
+			query.setParameter("attributesPatch", attributesPatch).setParameter("feedingAreaAttributesPatch",
+					feedingAreaAttributesPatch);
+		}
+		return query.executeUpdate();
+	}
+}
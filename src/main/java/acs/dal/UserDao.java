@@ -1,11 +1,34 @@
 package acs.dal;
 
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import acs.data.UserEntity;
 import acs.data.details.UserEntityId;
 
 public interface UserDao extends PagingAndSortingRepository<UserEntity, UserEntityId> {
 
+	@Query("SELECT u FROM UserEntity u WHERE u.id.userDomain > :domain OR (u.id.userDomain = :domain "
+			+ "AND u.id.email > :email) ORDER BY u.id.userDomain, u.id.email")
+	public List<UserEntity> findAllAfter(@Param("domain") String domain, @Param("email") String email,
+			Pageable pageable);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM UserEntity")
+	public int deleteAllInBulk();
+
+	// streamed row by row, see ActionDao.streamAll
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE))
+	@Query("SELECT u FROM UserEntity u")
+	public Stream<UserEntity> streamAll();
 }
@@ -1,21 +1,33 @@
 package acs.data;
 
+import java.util.Date;
 import java.util.Map;
 
+import javax.persistence.Column;
 import javax.persistence.Convert;
 import javax.persistence.Embedded;
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
-import javax.persistence.Lob;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
 
 import acs.data.details.ActionEntityId;
 import acs.data.details.ElementEntityId;
 import acs.data.details.UserEntityId;
 
 @Entity
-@Table(name = "ACTIONS")
-public class ActionEntity implements Comparable<Object> {
+@Table(name = "ACTIONS", indexes = { @Index(name = "actions_created_idx", columnList = "created_timestamp"),
+		@Index(name = "actions_element_created_idx", columnList = "element_domain, element_id, created_timestamp"),
+		@Index(name = "actions_invoker_created_idx", columnList = "user_domain, email, created_timestamp"),
+		@Index(name = "actions_type_created_idx", columnList = "type, created_timestamp") })
+public class ActionEntity implements Comparable<Object>, Persistable<ActionEntityId> {
 	@EmbeddedId
 	private ActionEntityId actionId; // EMBEDDED
 
@@ -24,19 +36,26 @@ public class ActionEntity implements Comparable<Object> {
 	@Embedded
 	private ElementEntityId element; // EMBEDDED
 
-	private String createdTimestamp; // CREATION_TIMESTAMP - VARCHAR(255)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "created_timestamp", nullable = false)
+	private Date createdTimestamp; // CREATED_TIMESTAMP - TIMESTAMP
 
 	@Embedded
 	private UserEntityId invokedBy; // INVOKED_BY - EMBEDDED
 
-	@Lob
+	@Column(name = "action_attributes", columnDefinition = "JSON")
 	@Convert(converter = MapToJsonConverter.class)
-	private Map<String, Object> actionAttributes; // ATTRIBUTES - CLOB
+	private Map<String, Object> actionAttributes; // ATTRIBUTES - JSON
+
+	// action ids are assigned by the service, so without this flag every save
+	// would merge and SELECT the row before inserting it
+	@Transient
+	private boolean newEntity = true;
 
 	public ActionEntity() {
 	}
 
-	public ActionEntity(ActionEntityId actionId, String type, ElementEntityId element, String createdTimestamp,
+	public ActionEntity(ActionEntityId actionId, String type, ElementEntityId element, Date createdTimestamp,
 			UserEntityId invokedBy, Map<String, Object> actionAttributes) {
 		this.actionId = actionId;
 		this.type = type;
@@ -71,11 +90,11 @@ public class ActionEntity implements Comparable<Object> {
 	}
 
 	
-	public String getCreatedTimestamp() {
+	public Date getCreatedTimestamp() {
 		return createdTimestamp;
 	}
 
-	public void setCreatedTimestamp(String createdTimestamp) {
+	public void setCreatedTimestamp(Date createdTimestamp) {
 		this.createdTimestamp = createdTimestamp;
 	}
 
@@ -95,6 +114,22 @@ public class ActionEntity implements Comparable<Object> {
 		this.actionAttributes = actionAttributes;
 	}
 
+	@Override
+	public ActionEntityId getId() {
+		return actionId;
+	}
+
+	@Override
+	public boolean isNew() {
+		return newEntity;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.newEntity = false;
+	}
+
 	@Override
 	public String toString() {
 		return "ActionEntity [actionId=" + actionId + ", type=" + type + ", element=" + element + ", createdTimestamp="
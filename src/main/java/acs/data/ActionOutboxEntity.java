@@ -0,0 +1,129 @@
+package acs.data;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import acs.data.details.ActionEntityId;
+
+@Entity
+@Table(name = "ACTION_OUTBOX", indexes = {
+		@Index(name = "action_outbox_status_idx", columnList = "status, enqueued_timestamp"),
+		@Index(name = "action_outbox_lease_idx", columnList = "status, lease_expires_timestamp") })
+public class ActionOutboxEntity {
+	@EmbeddedId
+	private ActionEntityId actionId; // EMBEDDED - same id as the queued ActionEntity
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "status")
+	private ActionStatus status; // VARCHAR(255)
+
+	private int attempts; // INT
+
+	private String message; // VARCHAR(255)
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "enqueued_timestamp")
+	private Date enqueuedTimestamp; // ENQUEUED_TIMESTAMP - TIMESTAMP
+
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date completedTimestamp; // COMPLETED_TIMESTAMP - TIMESTAMP
+
+	// the instance working on a PROCESSING entry, and until when; once the lease
+	// runs out the entry may be claimed again
+	@Column(name = "claimed_by")
+	private String claimedBy; // CLAIMED_BY VARCHAR(255)
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "lease_expires_timestamp")
+	private Date leaseExpiresTimestamp; // LEASE_EXPIRES_TIMESTAMP - TIMESTAMP
+
+	public ActionOutboxEntity() {
+	}
+
+	public ActionOutboxEntity(ActionEntityId actionId, ActionStatus status, Date enqueuedTimestamp) {
+		this.actionId = actionId;
+		this.status = status;
+		this.enqueuedTimestamp = enqueuedTimestamp;
+	}
+
+	public ActionEntityId getActionId() {
+		return actionId;
+	}
+
+	public void setActionId(ActionEntityId actionId) {
+		this.actionId = actionId;
+	}
+
+	public ActionStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(ActionStatus status) {
+		this.status = status;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public Date getEnqueuedTimestamp() {
+		return enqueuedTimestamp;
+	}
+
+	public void setEnqueuedTimestamp(Date enqueuedTimestamp) {
+		this.enqueuedTimestamp = enqueuedTimestamp;
+	}
+
+	public Date getCompletedTimestamp() {
+		return completedTimestamp;
+	}
+
+	public void setCompletedTimestamp(Date completedTimestamp) {
+		this.completedTimestamp = completedTimestamp;
+	}
+
+	public String getClaimedBy() {
+		return claimedBy;
+	}
+
+	public void setClaimedBy(String claimedBy) {
+		this.claimedBy = claimedBy;
+	}
+
+	public Date getLeaseExpiresTimestamp() {
+		return leaseExpiresTimestamp;
+	}
+
+	public void setLeaseExpiresTimestamp(Date leaseExpiresTimestamp) {
+		this.leaseExpiresTimestamp = leaseExpiresTimestamp;
+	}
+
+	@Override
+	public String toString() {
+		return "ActionOutboxEntity [actionId=" + actionId + ", status=" + status + ", attempts=" + attempts
+				+ ", message=" + message + ", enqueuedTimestamp=" + enqueuedTimestamp + ", completedTimestamp="
+				+ completedTimestamp + ", claimedBy=" + claimedBy + ", leaseExpiresTimestamp=" + leaseExpiresTimestamp
+				+ "]";
+	}
+}
@@ -0,0 +1,5 @@
+package acs.data;
+
+public enum ActionStatus {
+	PENDING, PROCESSING, DONE, FAILED
+}
@@ -0,0 +1,79 @@
+package acs.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import acs.data.details.ElementEntityId;
+
+/*
+ * Materialized path of an element: the ids of its ancestors from the root down,
+ * followed by its own id, e.g. "/domain:root/domain:father/domain:child/". The
+ * descendants of an element are exactly the rows whose path starts with its
+ * path, so a B-tree index on the path answers them with a prefix range scan.
+ *
+ * '%', '/' and ':' inside an id are percent encoded so every segment splits
+ * back into the id it was made from.
+ */
+public final class AncestryPath {
+	// 768 utf8mb4 characters is the longest column InnoDB can index as a whole
+	public static final int MAX_LENGTH = 768;
+	private static final char SEPARATOR = '/';
+	private static final char ID_SEPARATOR = ':';
+
+	private AncestryPath() {
+	}
+
+	public static String root(ElementEntityId elementId) {
+		return child(String.valueOf(SEPARATOR), elementId);
+	}
+
+	public static String child(String fatherPath, ElementEntityId elementId) {
+		return fatherPath + encode(elementId.getDomain()) + ID_SEPARATOR + encode(elementId.getId()) + SEPARATOR;
+	}
+
+	// the number of ancestors, 0 for a root
+	public static int depth(String path) {
+		int separators = 0;
+		for (int i = 0; i < path.length(); i++) {
+			if (path.charAt(i) == SEPARATOR) {
+				separators++;
+			}
+		}
+		return separators - 2;
+	}
+
+	// ancestors from the root down to the father
+	public static List<ElementEntityId> ancestorIds(String path) {
+		List<ElementEntityId> ids = new ArrayList<>();
+		String[] segments = path.substring(1).split(String.valueOf(SEPARATOR));
+		for (int i = 0; i < segments.length - 1; i++) {
+			int split = segments[i].indexOf(ID_SEPARATOR);
+			ids.add(new ElementEntityId(decode(segments[i].substring(0, split)),
+					decode(segments[i].substring(split + 1))));
+		}
+		return ids;
+	}
+
+	// the path of the father, a root has none
+	public static String fatherPath(String path) {
+		int end = path.lastIndexOf(SEPARATOR, path.length() - 2);
+		return end <= 0 ? null : path.substring(0, end + 1);
+	}
+
+	public static boolean isUnder(String path, String ancestorPath) {
+		return path.length() > ancestorPath.length() && path.startsWith(ancestorPath);
+	}
+
+	// LIKE pattern matching the path itself and every path below it
+	public static String subtreePattern(String path) {
+		return path.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+
+	private static String encode(String text) {
+		return text.replace("%", "%25").replace("/", "%2F").replace(":", "%3A");
+	}
+
+	private static String decode(String text) {
+		return text.replace("%3A", ":").replace("%2F", "/").replace("%25", "%");
+	}
+}
@@ -1,24 +1,35 @@
 package acs.data;
 
+import java.util.Date;
 import java.util.Map;
 import java.util.Set;
 
-import javax.persistence.Convert;
+import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
-import javax.persistence.Lob;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinColumns;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Transient;
 
 import acs.data.details.ElementEntityId;
 import acs.data.details.UserEntityId;
 
 @Entity
-@Table(name = "ELEMENTS")
+@Table(name = "ELEMENTS", indexes = { @Index(name = "elements_geohash_idx", columnList = "geohash"),
+		@Index(name = "elements_created_idx", columnList = "created_timestamp"),
+		@Index(name = "elements_ancestry_idx", columnList = "ancestry_path") })
 public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
+	private static final MapToJsonConverter ATTRIBUTES_JSON = new MapToJsonConverter();
 
 	@EmbeddedId
 	private ElementEntityId elementId; // DOMAIN VARCHAR(255)
@@ -29,7 +40,9 @@ public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
 
 	private Boolean active; // ACTIVE BOOLEAN
 
-	private String createdTimestamp; // CREATION_TIMESTAMP VARCHAR(255)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "created_timestamp")
+	private Date createdTimestamp; // CREATED_TIMESTAMP TIMESTAMP
 
 	@Embedded
 	private UserEntityId createdBy; // DOMAIN VARCHAR(255)
@@ -38,9 +51,33 @@ public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
 
 	private Double lng; // LNG DOUBLE
 
-	@Lob
-	@Convert(converter = acs.data.MapToJsonConverter.class)
-	private Map<String, Object> elementAttributes; // ATTRIBUTES CLOB
+	@Column(name = "geohash", length = GeoHash.MAX_PRECISION)
+	private String geohash; // GEOHASH VARCHAR(12) - derived from LAT/LNG
+
+	// written on insert, then only by the binding UPDATEs, so a save from a
+	// loaded copy cannot put back the place of an element whose ancestor moved;
+	// see ElementDao.bindToFather and moveSubtree
+	@Column(name = "ancestry_path", length = AncestryPath.MAX_LENGTH, updatable = false)
+	private String ancestryPath; // ANCESTRY_PATH VARCHAR(768) - maintained by binding
+
+	@Column(name = "ancestry_depth", updatable = false)
+	private Integer ancestryDepth; // ANCESTRY_DEPTH INTEGER - number of ancestors
+
+	// never written from a loaded snapshot, so a save cannot undo a concurrent
+	// refill; see ElementDao.addToBowlCounters and setBowlCounters
+	@Column(name = "full_food_bowl", updatable = false)
+	private Integer fullFoodBowl; // FULL_FOOD_BOWL INTEGER
+
+	@Column(name = "full_water_bowl", updatable = false)
+	private Integer fullWaterBowl; // FULL_WATER_BOWL INTEGER
+
+	// kept as the raw JSON text and parsed on first use, listings that do not
+	// return the attributes never parse them
+	@Column(name = "element_attributes", columnDefinition = "JSON")
+	private String elementAttributesJson; // ATTRIBUTES JSON
+
+	@Transient
+	private Map<String, Object> elementAttributes;
 
 	// add another entity collection related to this one using ONE-TO-MANY
 	// relationship
@@ -49,12 +86,15 @@ public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
 
 	// add another entity related to this one using MANY-TO-ONE relationship
 	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumns({
+			@JoinColumn(name = "father_element_domain", referencedColumnName = "element_domain", updatable = false),
+			@JoinColumn(name = "father_element_id", referencedColumnName = "element_id", updatable = false) })
 	private ElementEntity father;
 
 	public ElementEntity() {
 	}
 
-	public ElementEntity(ElementEntityId elementId, String type, String name, Boolean active, String createdTimestamp,
+	public ElementEntity(ElementEntityId elementId, String type, String name, Boolean active, Date createdTimestamp,
 			UserEntityId createdBy, Double lat, Double lng, Map<String, Object> elementAttributes) {
 		this.elementId = elementId;
 		this.type = type;
@@ -64,7 +104,7 @@ public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
 		this.createdBy = createdBy;
 		this.lat = lat;
 		this.lng = lng;
-		this.elementAttributes = elementAttributes;
+		setElementAttributes(elementAttributes);
 	}
 
 	public ElementEntityId getElementId() {
@@ -99,11 +139,11 @@ public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
 		this.active = active;
 	}
 
-	public String getCreatedTimestamp() {
+	public Date getCreatedTimestamp() {
 		return createdTimestamp;
 	}
 
-	public void setCreatedTimestamp(String createdTimestamp) {
+	public void setCreatedTimestamp(Date createdTimestamp) {
 		this.createdTimestamp = createdTimestamp;
 	}
 
@@ -131,12 +171,36 @@ public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
 		this.lng = lng;
 	}
 
+	public Integer getFullFoodBowl() {
+		return fullFoodBowl;
+	}
+
+	public void setFullFoodBowl(Integer fullFoodBowl) {
+		this.fullFoodBowl = fullFoodBowl;
+	}
+
+	public Integer getFullWaterBowl() {
+		return fullWaterBowl;
+	}
+
+	public void setFullWaterBowl(Integer fullWaterBowl) {
+		this.fullWaterBowl = fullWaterBowl;
+	}
+
 	public Map<String, Object> getElementAttributes() {
+		if (elementAttributes == null && elementAttributesJson != null) {
+			elementAttributes = ATTRIBUTES_JSON.convertToEntityAttribute(elementAttributesJson);
+		}
 		return elementAttributes;
 	}
 
 	public void setElementAttributes(Map<String, Object> elementAttributes) {
 		this.elementAttributes = elementAttributes;
+		this.elementAttributesJson = ATTRIBUTES_JSON.convertToDatabaseColumn(elementAttributes);
+	}
+
+	public String getElementAttributesJson() {
+		return elementAttributesJson;
 	}
 
 	public Set<ElementEntity> getChildren() {
@@ -160,11 +224,43 @@ public class ElementEntity implements Comparable<ElementEntity> { // ELEMENTS
 		this.father = origin;
 	}
 
+	public String getGeohash() {
+		return geohash;
+	}
+
+	public String getAncestryPath() {
+		return ancestryPath;
+	}
+
+	public void setAncestryPath(String ancestryPath) {
+		this.ancestryPath = ancestryPath;
+	}
+
+	public Integer getAncestryDepth() {
+		return ancestryDepth;
+	}
+
+	public void setAncestryDepth(Integer ancestryDepth) {
+		this.ancestryDepth = ancestryDepth;
+	}
+
+	@PrePersist
+	@PreUpdate
+	void updateDerivedColumns() {
+		this.geohash = GeoHash.encode(this.lat, this.lng);
+		// a new element starts as a root; binding moves it under its father
+		if (this.ancestryPath == null && this.father == null) {
+			this.ancestryPath = AncestryPath.root(this.elementId);
+			this.ancestryDepth = 0;
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "ElementEntity [elementId=" + elementId + ", type=" + type + ", name=" + name + ", active=" + active
 				+ ", createdTimestamp=" + createdTimestamp + ", createdBy=" + createdBy + ", lat=" + lat + ", lng="
-				+ lng + ", elementAttributes=" + elementAttributes + ", children=" + children + "]";
+				+ lng + ", fullFoodBowl=" + fullFoodBowl + ", fullWaterBowl=" + fullWaterBowl + ", elementAttributes="
+				+ elementAttributesJson + ", children=" + children + "]";
 	}
 
 	@Override
@@ -0,0 +1,94 @@
+package acs.data;
+
+import java.util.Date;
+
+/*
+ * Read model of an element for listings, filled by JPQL constructor
+ * expressions. It is not an entity: Hibernate neither tracks nor snapshots it,
+ * and it carries no father/children proxies. The attributes stay raw JSON.
+ */
+public class ElementView {
+	private final String elementDomain;
+	private final String elementId;
+	private final String type;
+	private final String name;
+	private final Boolean active;
+	private final Date createdTimestamp;
+	private final String createdByDomain;
+	private final String createdByEmail;
+	private final Double lat;
+	private final Double lng;
+	private final String elementAttributesJson;
+	private final Integer fullFoodBowl;
+	private final Integer fullWaterBowl;
+
+	public ElementView(String elementDomain, String elementId, String type, String name, Boolean active,
+			Date createdTimestamp, String createdByDomain, String createdByEmail, Double lat, Double lng,
+			String elementAttributesJson, Integer fullFoodBowl, Integer fullWaterBowl) {
+		this.elementDomain = elementDomain;
+		this.elementId = elementId;
+		this.type = type;
+		this.name = name;
+		this.active = active;
+		this.createdTimestamp = createdTimestamp;
+		this.createdByDomain = createdByDomain;
+		this.createdByEmail = createdByEmail;
+		this.lat = lat;
+		this.lng = lng;
+		this.elementAttributesJson = elementAttributesJson;
+		this.fullFoodBowl = fullFoodBowl;
+		this.fullWaterBowl = fullWaterBowl;
+	}
+
+	public String getElementDomain() {
+		return elementDomain;
+	}
+
+	public String getElementId() {
+		return elementId;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Boolean getActive() {
+		return active;
+	}
+
+	public Date getCreatedTimestamp() {
+		return createdTimestamp;
+	}
+
+	public String getCreatedByDomain() {
+		return createdByDomain;
+	}
+
+	public String getCreatedByEmail() {
+		return createdByEmail;
+	}
+
+	public Double getLat() {
+		return lat;
+	}
+
+	public Double getLng() {
+		return lng;
+	}
+
+	public String getElementAttributesJson() {
+		return elementAttributesJson;
+	}
+
+	public Integer getFullFoodBowl() {
+		return fullFoodBowl;
+	}
+
+	public Integer getFullWaterBowl() {
+		return fullWaterBowl;
+	}
+}
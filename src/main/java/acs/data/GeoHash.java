@@ -0,0 +1,131 @@
+package acs.data;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/*
+ * Base32 geohash encoding. Points that share a geohash prefix lie in the same
+ * cell, so a B-tree index on the hash answers "everything in this cell" with a
+ * prefix range scan.
+ */
+public final class GeoHash {
+	public static final int MAX_PRECISION = 12;
+	private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+	public static final double EARTH_RADIUS_METERS = 6371008.8;
+	private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+	private GeoHash() {
+	}
+
+	public static String encode(double lat, double lng, int precision) {
+		double minLat = -90, maxLat = 90;
+		double minLng = -180, maxLng = 180;
+		StringBuilder hash = new StringBuilder(precision);
+		boolean evenBit = true;
+		int bit = 0;
+		int ch = 0;
+		while (hash.length() < precision) {
+			if (evenBit) {
+				double mid = (minLng + maxLng) / 2;
+				if (lng >= mid) {
+					ch = (ch << 1) | 1;
+					minLng = mid;
+				} else {
+					ch = ch << 1;
+					maxLng = mid;
+				}
+			} else {
+				double mid = (minLat + maxLat) / 2;
+				if (lat >= mid) {
+					ch = (ch << 1) | 1;
+					minLat = mid;
+				} else {
+					ch = ch << 1;
+					maxLat = mid;
+				}
+			}
+			evenBit = !evenBit;
+			if (++bit == 5) {
+				hash.append(BASE32.charAt(ch));
+				bit = 0;
+				ch = 0;
+			}
+		}
+		return hash.toString();
+	}
+
+	public static String encode(Double lat, Double lng) {
+		if (lat == null || lng == null) {
+			return null;
+		}
+		return encode(lat, lng, MAX_PRECISION);
+	}
+
+	/*
+	 * Returns the prefixes of the cell containing the point and of its eight
+	 * neighbours, at the finest precision whose cells are still at least as large
+	 * as the radius, so together they cover the whole circle. An empty set means
+	 * the radius is too large to narrow down by cell.
+	 */
+	public static Set<String> coveringCells(double lat, double lng, double radiusMeters) {
+		Set<String> cells = new LinkedHashSet<>();
+		int precision = coveringPrecision(lat, radiusMeters);
+		if (precision == 0) {
+			return cells;
+		}
+		double latSpan = latSpan(precision);
+		double lngSpan = lngSpan(precision);
+		for (int dLat = -1; dLat <= 1; dLat++) {
+			for (int dLng = -1; dLng <= 1; dLng++) {
+				double cellLat = Math.max(-90, Math.min(90, lat + dLat * latSpan));
+				double cellLng = normalizeLng(lng + dLng * lngSpan);
+				cells.add(encode(cellLat, cellLng, precision));
+			}
+		}
+		return cells;
+	}
+
+	public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+		double dLat = Math.toRadians(lat2 - lat1);
+		double dLng = Math.toRadians(lng2 - lng1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+				* Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+		return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	private static int coveringPrecision(double lat, double radiusMeters) {
+		for (int precision = MAX_PRECISION; precision > 0; precision--) {
+			// a neighbouring cell is narrowest on its edge furthest from the equator
+			double edgeLat = Math.abs(lat) + 2 * latSpan(precision);
+			if (edgeLat >= 90) {
+				continue;
+			}
+			double height = latSpan(precision) * METERS_PER_DEGREE;
+			double width = lngSpan(precision) * METERS_PER_DEGREE * Math.cos(Math.toRadians(edgeLat));
+			if (height >= radiusMeters && width >= radiusMeters) {
+				return precision;
+			}
+		}
+		return 0;
+	}
+
+	private static double latSpan(int precision) {
+		int latBits = (precision * 5) / 2;
+		return 180 / Math.pow(2, latBits);
+	}
+
+	private static double lngSpan(int precision) {
+		int lngBits = (precision * 5 + 1) / 2;
+		return 360 / Math.pow(2, lngBits);
+	}
+
+	private static double normalizeLng(double lng) {
+		if (lng >= 180) {
+			return lng - 360;
+		}
+		if (lng < -180) {
+			return lng + 360;
+		}
+		return lng;
+	}
+}
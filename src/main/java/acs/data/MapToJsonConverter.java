@@ -6,21 +6,27 @@ import javax.persistence.AttributeConverter;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 
 public class MapToJsonConverter implements AttributeConverter<Map<String, Object>, String>{
-	private ObjectMapper jackson;
-	
-	public MapToJsonConverter() {
-		this.jackson = new ObjectMapper();
-	}
-	
+	// readers and writers are immutable and resolve the map type once, so every
+	// converter instance shares the same pair
+	private static final ObjectMapper JACKSON = new ObjectMapper();
+	private static final TypeReference<Map<String, Object>> ATTRIBUTES_TYPE = new TypeReference<Map<String, Object>>() {
+	};
+	private static final ObjectReader READER = JACKSON.readerFor(ATTRIBUTES_TYPE);
+	private static final ObjectWriter WRITER = JACKSON.writerFor(ATTRIBUTES_TYPE);
+
 	@Override
 	public String convertToDatabaseColumn(Map<String, Object> attributes) {
-		// use jackson for marshalling the attributes 
+		if (attributes == null) {
+			return null;
+		}
+		// use jackson for marshalling the attributes
 		try {
-			return this.jackson
-					.writeValueAsString(attributes);
+			return WRITER.writeValueAsString(attributes);
 		} catch (JsonProcessingException e) {
 			throw new RuntimeException(e);
 		}
@@ -28,10 +34,12 @@ public class MapToJsonConverter implements AttributeConverter<Map<String, Object
 
 	@Override
 	public Map<String, Object> convertToEntityAttribute(String json) {
+		if (json == null) {
+			return null;
+		}
 		// use jackson for unmarshalling the json
 		try {
-			return this.jackson
-					.readValue(json, new TypeReference<Map<String, Object>>(){});
+			return READER.readValue(json);
 		} catch (JsonProcessingException e) {
 			throw new RuntimeException(e);
 		}
@@ -9,5 +9,5 @@ public interface ActionService {
 
 	public List<ActionBoundary> getAllActions(String adminDomain, String adminEmail);
 
-	public void deleteAllActions(String adminDomain, String adminEmail);
+	public long deleteAllActions(String adminDomain, String adminEmail);
 }
@@ -1,11 +1,52 @@
 package acs.logic;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
 
 import acs.boundaries.ActionBoundary;
+import acs.boundaries.ActionQueueBoundary;
+import acs.boundaries.ActionResultBoundary;
+import acs.boundaries.ActionStatusBoundary;
+import acs.boundaries.details.ActionId;
 
 public interface DBActionService extends ActionService{
 
 	Collection<ActionBoundary> getAllActions(String adminDomain, String adminEmail, int size, int page);
 
+	KeysetPage<ActionBoundary> getAllActionsAfter(String adminDomain, String adminEmail, String cursor, int size);
+
+	Collection<ActionBoundary> getActionsCreatedBetween(String adminDomain, String adminEmail, Date from, Date to,
+			int size, int page);
+
+	KeysetPage<ActionBoundary> getActionsOfElement(String adminDomain, String adminEmail, String elementDomain,
+			String elementId, String type, Date from, Date to, String cursor, int size);
+
+	KeysetPage<ActionBoundary> getActionsOfInvoker(String adminDomain, String adminEmail, String userDomain,
+			String userEmail, String type, Date from, Date to, String cursor, int size);
+
+	KeysetPage<ActionBoundary> getActionsOfType(String adminDomain, String adminEmail, String type, Date from, Date to,
+			String cursor, int size);
+
+	void exportAllActions(String adminDomain, String adminEmail, Consumer<ActionBoundary> consumer);
+
+	List<ActionResultBoundary> invokeActions(List<ActionBoundary> actions);
+
+	ActionId enqueueAction(ActionBoundary action);
+
+	ActionStatusBoundary getActionStatus(String userDomain, String userEmail, String actionDomain, String actionId);
+
+	ActionQueueBoundary getActionQueue(String adminDomain, String adminEmail);
+
+	long getPendingActionCount();
+
+	List<ActionId> claimQueuedActions(int maxActions);
+
+	void processQueuedAction(ActionId actionId);
+
+	void failQueuedAction(ActionId actionId, String message, boolean retry);
+
+	int requeueExpiredLeases();
+
 }
@@ -1,6 +1,9 @@
 package acs.logic;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import acs.boundaries.ElementBoundary;
 import acs.boundaries.details.ElementId;
@@ -15,6 +18,17 @@ public interface DBElementService extends ElementService {
 	public Collection<ElementBoundary> getParent(String userDomain, String userEmail, String elementDomain,
 			String elementId, int size, int page);
 
+	public void patch(String managerDomain, String managerEmail, String elementDomain, String elementId,
+			ElementBoundary patch);
+
+	public int deactivateSubtree(String managerDomain, String managerEmail, String elementDomain, String elementId);
+
+	public List<ElementBoundary> getDescendants(String userDomain, String userEmail, String elementDomain,
+			String elementId, int depth);
+
+	public List<ElementBoundary> getAncestors(String userDomain, String userEmail, String elementDomain,
+			String elementId);
+
 	public Collection<ElementBoundary> getAll(String userDomain, String userEmail, int size, int page);
 
 	public Collection<ElementBoundary> getElementsWithElementName(String userDomain, String userEmail, String name,
@@ -28,4 +42,38 @@ public interface DBElementService extends ElementService {
 
 	public Collection<ElementBoundary> getElementsWithElementTypeNearBy(String userDomain, String userEmail, double lat,
 			double lng, double distance, String type, int size, int page);
+
+	public KeysetPage<ElementBoundary> getAllAfter(String userDomain, String userEmail, String cursor, int size);
+
+	public KeysetPage<ElementBoundary> getAllChildrenAfter(String userDomain, String userEmail, String elementDomain,
+			String elementId, String cursor, int size);
+
+	public KeysetPage<ElementBoundary> getElementsWithElementNameAfter(String userDomain, String userEmail,
+			String name, String cursor, int size);
+
+	public KeysetPage<ElementBoundary> getElementsWithElementTypeAfter(String userDomain, String userEmail,
+			String type, String cursor, int size);
+
+	public KeysetPage<ElementBoundary> getElementsNearByAfter(String userDomain, String userEmail, double lat,
+			double lng, double distance, String cursor, int size);
+
+	public KeysetPage<ElementBoundary> getElementsWithElementTypeNearByAfter(String userDomain, String userEmail,
+			double lat, double lng, double distance, String type, String cursor, int size);
+
+	public List<ElementBoundary> getElementsWithAttribute(String userDomain, String userEmail, String name,
+			String value, String type, int size, int page);
+
+	public void declareIndexedAttribute(String adminDomain, String adminEmail, String name);
+
+	public Collection<ElementBoundary> getElementsCreatedBetween(String userDomain, String userEmail, Date from,
+			Date to, int size, int page);
+
+	public Collection<ElementBoundary> getElementsWithinRadius(String userDomain, String userEmail, double lat,
+			double lng, double distanceMeters, String type, int size, int page);
+
+	public Map<ElementId, ElementBoundary> getSpecificElements(String userDomain, String userEmail,
+			Collection<ElementId> elementIds);
+
+	public void addToBowlCounters(String managerDomain, String managerEmail, String elementDomain, String elementId,
+			int fullFoodBowlDelta, int fullWaterBowlDelta);
 }
@@ -1,13 +1,25 @@
 package acs.logic;
 
 import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import acs.boundaries.UserBoundary;
+import acs.data.UserEntity;
+import acs.data.UserRole;
 
 public interface DBUserService extends UserService {
 
 	Collection<UserBoundary> getAllUsers(String adminDomain, String adminEmail, int size, int page);
 
+	KeysetPage<UserBoundary> getAllUsersAfter(String adminDomain, String adminEmail, String cursor, int size);
+
+	void exportAllUsers(String adminDomain, String adminEmail, Consumer<UserBoundary> consumer);
+
+	Optional<UserEntity> authenticate(String userDomain, String userEmail);
+
+	Optional<UserRole> resolveRole(String userDomain, String userEmail);
+
 	boolean isManagerValidation(String managerDomain, String managerEmail);
 
 	boolean isAdminValidation(String userDomain, String userEmail);
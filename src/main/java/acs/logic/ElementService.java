@@ -15,5 +15,5 @@ public interface ElementService {
 	public ElementBoundary getSpecificElement(String userDomain, String userEmail, String elementDomain,
 			String elementId);
 
-	public void deleteAllElements(String adminDomain, String adminEmail);
+	public long deleteAllElements(String adminDomain, String adminEmail);
 }
@@ -0,0 +1,82 @@
+package acs.logic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import acs.logic.database.exceptions.InvalidCursorException;
+
+/*
+ * One page of a keyset (seek) listing. The cursor is an opaque, URL safe
+ * encoding of the sort key of the last row on the page, usually (domain, id);
+ * the next page starts strictly after it. An empty cursor starts from the
+ * beginning.
+ */
+public class KeysetPage<T> {
+	private static final String SEPARATOR = "\n";
+
+	private List<T> content;
+	private String nextCursor;
+
+	public KeysetPage(List<T> content, String nextCursor) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	// null on the last page
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public <R> KeysetPage<R> mapContent(Function<List<T>, List<R>> mapper) {
+		return new KeysetPage<>(mapper.apply(this.content), this.nextCursor);
+	}
+
+	// rows holds up to size + 1 rows; the extra one only tells that there is more
+	public static <E, T> KeysetPage<T> of(List<E> rows, int size, Function<E, T> toBoundary,
+			Function<E, String[]> keyOf) {
+		boolean hasNext = rows.size() > size;
+		List<E> page = hasNext ? rows.subList(0, size) : rows;
+		String nextCursor = null;
+		if (hasNext) {
+			nextCursor = encode(keyOf.apply(page.get(page.size() - 1)));
+		}
+		return new KeysetPage<>(page.stream().map(toBoundary).collect(Collectors.toList()), nextCursor);
+	}
+
+	public static String encode(String... key) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(String.join(SEPARATOR, key).getBytes(StandardCharsets.UTF_8));
+	}
+
+	// returns {domain, id}
+	public static String[] decode(String cursor) {
+		return decode(cursor, 2);
+	}
+
+	// returns the parts of the key, the last one keeping any further separators
+	public static String[] decode(String cursor, int parts) {
+		if (cursor == null || cursor.isEmpty()) {
+			String[] start = new String[parts];
+			Arrays.fill(start, "");
+			return start;
+		}
+		try {
+			String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+					.split(SEPARATOR, parts);
+			if (key.length == parts) {
+				return key;
+			}
+		} catch (IllegalArgumentException e) {
+			// reported below
+		}
+		throw new InvalidCursorException(cursor);
+	}
+}
@@ -13,5 +13,5 @@ public interface UserService {
 
 	public List<UserBoundary> getAllUsers(String adminDomain, String adminEmail);
 
-	public void deleteAllUsers(String adminDomain, String adminEmail);
+	public long deleteAllUsers(String adminDomain, String adminEmail);
 }
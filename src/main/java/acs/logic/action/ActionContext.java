@@ -0,0 +1,90 @@
+package acs.logic.action;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import acs.boundaries.ActionBoundary;
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.details.ElementId;
+import acs.data.UserRole;
+
+/*
+ * Everything an ActionHandler needs about the invoked action: the target
+ * element (loaded once, by the invoker), the invoker's role and the parsed
+ * action attributes. Bowl counter changes are collected here and applied by
+ * the ActionService once the handler returns.
+ */
+public class ActionContext {
+	public static final String MANAGER_DOMAIN = "managerDomain";
+	public static final String MANAGER_EMAIL = "managerEmail";
+	public static final String ELEMENT_NAME = "elementName";
+	public static final String ELEMENT_LAT = "elementLat";
+	public static final String ELEMENT_LNG = "elementLng";
+	private static final List<String> CONTROL_ATTRIBUTES = Arrays.asList(MANAGER_DOMAIN, MANAGER_EMAIL,
+			ELEMENT_NAME, ELEMENT_LAT, ELEMENT_LNG);
+
+	private ActionBoundary action;
+	private UserRole invokerRole;
+	private ElementBoundary targetElement;
+	private Map<String, Object> elementAttributes;
+	private Map<ElementId, BowlCounterDelta> bowlCounterDeltas;
+
+	public ActionContext(ActionBoundary action, UserRole invokerRole, ElementBoundary targetElement) {
+		this.action = action;
+		this.invokerRole = invokerRole;
+		this.targetElement = targetElement;
+		this.elementAttributes = new TreeMap<>(action.getActionAttributes());
+		CONTROL_ATTRIBUTES.forEach(this.elementAttributes::remove);
+		this.bowlCounterDeltas = new LinkedHashMap<>();
+	}
+
+	public ActionBoundary getAction() {
+		return action;
+	}
+
+	public UserRole getInvokerRole() {
+		return invokerRole;
+	}
+
+	public ElementBoundary getTargetElement() {
+		return targetElement;
+	}
+
+	public Map<String, Object> getActionAttributes() {
+		return action.getActionAttributes();
+	}
+
+	// returns the action attribute as a String, or null if it is missing
+	public String getActionAttribute(String name) {
+		Object value = action.getActionAttributes().get(name);
+		return value == null ? null : value.toString();
+	}
+
+	public String getManagerDomain() {
+		return getActionAttribute(MANAGER_DOMAIN);
+	}
+
+	public String getManagerEmail() {
+		return getActionAttribute(MANAGER_EMAIL);
+	}
+
+	// the action attributes without the control attributes (manager, name and
+	// location of a new element)
+	public Map<String, Object> getElementAttributes() {
+		return Collections.unmodifiableMap(elementAttributes);
+	}
+
+	public void addToBowlCounters(ElementBoundary feedingArea, int fullFoodBowlDelta, int fullWaterBowlDelta) {
+		this.bowlCounterDeltas.computeIfAbsent(feedingArea.getElementId(), id -> new BowlCounterDelta(feedingArea))
+				.add(fullFoodBowlDelta, fullWaterBowlDelta);
+	}
+
+	public Collection<BowlCounterDelta> getBowlCounterDeltas() {
+		return bowlCounterDeltas.values();
+	}
+}
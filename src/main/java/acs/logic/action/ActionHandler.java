@@ -0,0 +1,11 @@
+package acs.logic.action;
+
+import acs.boundaries.ElementBoundary;
+
+public interface ActionHandler {
+	// the ActionBoundary type this handler is registered for, e.g. "refill-food_bowl"
+	public String getActionType();
+
+	// returns the affected element, or null if the action is not valid
+	public ElementBoundary handle(ActionContext context);
+}
@@ -0,0 +1,29 @@
+package acs.logic.action;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.ElementBoundary;
+import acs.logic.DBElementService;
+
+@Component
+public class AddFeedingAreaHandler extends ElementActionHandler {
+
+	@Autowired
+	public AddFeedingAreaHandler(DBElementService elementService) {
+		super(elementService);
+	}
+
+	@Override
+	public String getActionType() {
+		return "add-feeding_area";
+	}
+
+	@Override
+	public ElementBoundary handle(ActionContext context) {
+		if (isFeedingArea(context.getActionAttributes())) {
+			return createElement(context);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,33 @@
+package acs.logic.action;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.ElementBoundary;
+import acs.logic.DBElementService;
+
+@Component
+public class AddFoodBowlHandler extends ElementActionHandler {
+
+	@Autowired
+	public AddFoodBowlHandler(DBElementService elementService) {
+		super(elementService);
+	}
+
+	@Override
+	public String getActionType() {
+		return "add-food_bowl";
+	}
+
+	@Override
+	public ElementBoundary handle(ActionContext context) {
+		if (isFoodBowl(context.getActionAttributes())) {
+			ElementBoundary foodBowl = createElement(context);
+			if (foodBowl != null) {
+				updateFeedingAreaStatus(context, foodBowl, Operation.CREATE);
+			}
+			return foodBowl;
+		}
+		return null;
+	}
+}
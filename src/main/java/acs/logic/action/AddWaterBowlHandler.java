@@ -0,0 +1,33 @@
+package acs.logic.action;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.ElementBoundary;
+import acs.logic.DBElementService;
+
+@Component
+public class AddWaterBowlHandler extends ElementActionHandler {
+
+	@Autowired
+	public AddWaterBowlHandler(DBElementService elementService) {
+		super(elementService);
+	}
+
+	@Override
+	public String getActionType() {
+		return "add-water_bowl";
+	}
+
+	@Override
+	public ElementBoundary handle(ActionContext context) {
+		if (isWaterBowl(context.getActionAttributes())) {
+			ElementBoundary waterBowl = createElement(context);
+			if (waterBowl != null) {
+				updateFeedingAreaStatus(context, waterBowl, Operation.CREATE);
+			}
+			return waterBowl;
+		}
+		return null;
+	}
+}
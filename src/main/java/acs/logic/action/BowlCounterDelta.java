@@ -0,0 +1,57 @@
+package acs.logic.action;
+
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.details.ElementId;
+
+public class BowlCounterDelta {
+	private ElementId feedingAreaId;
+	private String managerDomain;
+	private String managerEmail;
+	private int fullFoodBowl;
+	private int fullWaterBowl;
+
+	public BowlCounterDelta(ElementBoundary feedingArea) {
+		this.feedingAreaId = feedingArea.getElementId();
+		this.managerDomain = feedingArea.getCreatedBy().getUserId().getDomain();
+		this.managerEmail = feedingArea.getCreatedBy().getUserId().getEmail();
+	}
+
+	public void add(int fullFoodBowlDelta, int fullWaterBowlDelta) {
+		this.fullFoodBowl += fullFoodBowlDelta;
+		this.fullWaterBowl += fullWaterBowlDelta;
+	}
+
+	public void add(BowlCounterDelta other) {
+		add(other.getFullFoodBowl(), other.getFullWaterBowl());
+	}
+
+	public boolean isEmpty() {
+		return this.fullFoodBowl == 0 && this.fullWaterBowl == 0;
+	}
+
+	public ElementId getFeedingAreaId() {
+		return feedingAreaId;
+	}
+
+	public String getManagerDomain() {
+		return managerDomain;
+	}
+
+	public String getManagerEmail() {
+		return managerEmail;
+	}
+
+	public int getFullFoodBowl() {
+		return fullFoodBowl;
+	}
+
+	public int getFullWaterBowl() {
+		return fullWaterBowl;
+	}
+
+	@Override
+	public String toString() {
+		return "BowlCounterDelta [feedingAreaId=" + feedingAreaId + ", fullFoodBowl=" + fullFoodBowl
+				+ ", fullWaterBowl=" + fullWaterBowl + "]";
+	}
+}
@@ -0,0 +1,171 @@
+package acs.logic.action;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.details.Location;
+import acs.logic.DBElementService;
+import acs.logic.util.DatePattern;
+
+public abstract class ElementActionHandler implements ActionHandler {
+	protected static final String FOOD_BOWL = "food_bowl";
+	protected static final String WATER_BOWL = "water_bowl";
+
+	protected enum Operation {
+		CREATE, REMOVE, UPDATE
+	};
+
+	protected DBElementService elementService;
+
+	protected ElementActionHandler(DBElementService elementService) {
+		this.elementService = elementService;
+	}
+
+	/*
+	 * Creates a new element, described by the action attributes, and binds it as a
+	 * child of the target element.
+	 */
+	protected ElementBoundary createElement(ActionContext context) {
+		ElementBoundary parent = context.getTargetElement();
+		if (parent.getActive() == true) {
+			String elementType = context.getAction().getType().split("-")[1];
+			String elementName = context.getActionAttribute(ActionContext.ELEMENT_NAME);
+			Double lat = Double.parseDouble(context.getActionAttribute(ActionContext.ELEMENT_LAT));
+			Double lng = Double.parseDouble(context.getActionAttribute(ActionContext.ELEMENT_LNG));
+			Location location = new Location(lat, lng);
+
+			ElementBoundary elementBoundary = new ElementBoundary(null, elementType, elementName, true, null, null,
+					location, new TreeMap<>(context.getElementAttributes()));
+
+			ElementBoundary createdElement = this.elementService.create(context.getManagerDomain(),
+					context.getManagerEmail(), elementBoundary);
+			if (createdElement != null) {
+				this.elementService.bindExistingElementToAnExistingChildElement(context.getManagerDomain(),
+						context.getManagerEmail(), parent.getElementId().getDomain(), parent.getElementId().getId(),
+						createdElement.getElementId());
+				return createdElement;
+			}
+		}
+		return null;
+	}
+
+	protected ElementBoundary updateElement(ActionContext context) {
+		ElementBoundary elementBoundary = context.getTargetElement();
+		if (elementBoundary != null && elementBoundary.getActive() == true) {
+			elementBoundary.setElementAttributes(new TreeMap<>(context.getElementAttributes()));
+			return this.elementService.update(context.getManagerDomain(), context.getManagerEmail(),
+					elementBoundary.getElementId().getDomain(), elementBoundary.getElementId().getId(),
+					elementBoundary);
+		}
+		return null;
+	}
+
+	protected ElementBoundary removeElement(ActionContext context) {
+		ElementBoundary elementBoundary = context.getTargetElement();
+		if (elementBoundary != null && elementBoundary.getActive() == true) {
+			elementBoundary.setActive(false);
+			// only the flag is sent; the target's attributes were read when the action
+			// started and would write back stale bowl counters
+			ElementBoundary deactivation = new ElementBoundary();
+			deactivation.setActive(false);
+			ElementBoundary updatedElementBoundary = this.elementService.update(context.getManagerDomain(),
+					context.getManagerEmail(), elementBoundary.getElementId().getDomain(),
+					elementBoundary.getElementId().getId(), deactivation);
+
+			if (updatedElementBoundary != null) {
+				this.elementService.deactivateSubtree(context.getManagerDomain(), context.getManagerEmail(),
+						elementBoundary.getElementId().getDomain(), elementBoundary.getElementId().getId());
+			}
+			return updatedElementBoundary;
+		}
+		return null;
+	}
+
+	/*
+	 * Records the change of the feeding area's full bowl counters. The feeding
+	 * area is the parent of the bowl; for a new bowl it is the action's target.
+	 */
+	protected void updateFeedingAreaStatus(ActionContext context, ElementBoundary bowl, Operation op) {
+		ElementBoundary feedingArea;
+		if (op == Operation.CREATE) {
+			feedingArea = context.getTargetElement();
+		} else {
+			feedingArea = this.elementService
+					.getParent(bowl.getCreatedBy().getUserId().getDomain(), bowl.getCreatedBy().getUserId().getEmail(),
+							bowl.getElementId().getDomain(), bowl.getElementId().getId(), 1, 0)
+					.stream().findFirst().orElse(null);
+		}
+		if (feedingArea != null) {
+			int delta = byOperation(op, isFull(bowl));
+			switch (bowl.getType()) {
+			case FOOD_BOWL:
+				context.addToBowlCounters(feedingArea, delta, 0);
+				break;
+			case WATER_BOWL:
+				context.addToBowlCounters(feedingArea, 0, delta);
+				break;
+			}
+		}
+	}
+
+	protected boolean isFull(ElementBoundary bowl) {
+		return Boolean.parseBoolean(bowl.getElementAttributes().get("state").toString());
+	}
+
+	private int byOperation(Operation op, boolean bowlState) {
+		switch (op) {
+		case CREATE:
+			return bowlState ? 1 : 0;
+		case UPDATE:
+			return bowlState ? 1 : -1;
+		case REMOVE:
+			return bowlState ? -1 : 0;
+		}
+		return 0;
+	}
+
+	protected boolean isFoodBowl(Map<String, Object> actionAttributes) {
+		// Check keys and values
+		try {
+			Boolean state = Boolean.parseBoolean(actionAttributes.get("state").toString());
+			String animal = (String) actionAttributes.get("animal");
+			String brand = (String) actionAttributes.get("brand");
+			Integer weight = Integer.parseInt(actionAttributes.get("weight").toString());
+			String lastFillDate = actionAttributes.get("lastFillDate").toString();
+			if (state == null || animal == null || brand == null || weight == null
+					|| !DatePattern.isDate(lastFillDate)) {
+				throw new RuntimeException(actionAttributes.toString() + " does not describe a valid Food Bowl!");
+			}
+		} catch (RuntimeException e) {
+			return false;
+		}
+		return true;
+	}
+
+	protected boolean isWaterBowl(Map<String, Object> actionAttributes) {
+		// Check keys and values
+		try {
+			Boolean state = Boolean.parseBoolean(actionAttributes.get("state").toString());
+			String waterQuality = (String) actionAttributes.get("waterQuality");
+			if (state == null || waterQuality == null)
+				throw new RuntimeException(actionAttributes.toString() + " does not describe a valid Water Bowl!");
+		} catch (RuntimeException e) {
+			return false;
+		}
+		return true;
+	}
+
+	protected boolean isFeedingArea(Map<String, Object> actionAttributes) {
+		// Check keys and values
+		try {
+			Integer fullFoodBowl = Integer.parseInt(actionAttributes.get("fullFoodBowl").toString());
+			Integer fullWaterBowl = Integer.parseInt(actionAttributes.get("fullWaterBowl").toString());
+			if (fullFoodBowl == null || fullWaterBowl == null)
+				throw new RuntimeException(actionAttributes.toString() + " does not describe a valid Feeding Area!");
+		} catch (Exception e) {
+			return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,34 @@
+package acs.logic.action;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.ElementBoundary;
+import acs.logic.DBElementService;
+
+@Component
+public class RefillFoodBowlHandler extends ElementActionHandler {
+
+	@Autowired
+	public RefillFoodBowlHandler(DBElementService elementService) {
+		super(elementService);
+	}
+
+	@Override
+	public String getActionType() {
+		return "refill-food_bowl";
+	}
+
+	@Override
+	public ElementBoundary handle(ActionContext context) {
+		if (isFoodBowl(context.getActionAttributes())) {
+			boolean prevState = isFull(context.getTargetElement());
+			ElementBoundary foodBowl = updateElement(context);
+			if (foodBowl != null && prevState != isFull(foodBowl)) {
+				updateFeedingAreaStatus(context, foodBowl, Operation.UPDATE);
+			}
+			return foodBowl;
+		}
+		return null;
+	}
+}
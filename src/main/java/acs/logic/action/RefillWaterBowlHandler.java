@@ -0,0 +1,34 @@
+package acs.logic.action;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.ElementBoundary;
+import acs.logic.DBElementService;
+
+@Component
+public class RefillWaterBowlHandler extends ElementActionHandler {
+
+	@Autowired
+	public RefillWaterBowlHandler(DBElementService elementService) {
+		super(elementService);
+	}
+
+	@Override
+	public String getActionType() {
+		return "refill-water_bowl";
+	}
+
+	@Override
+	public ElementBoundary handle(ActionContext context) {
+		if (isWaterBowl(context.getActionAttributes())) {
+			boolean prevState = isFull(context.getTargetElement());
+			ElementBoundary waterBowl = updateElement(context);
+			if (waterBowl != null && prevState != isFull(waterBowl)) {
+				updateFeedingAreaStatus(context, waterBowl, Operation.UPDATE);
+			}
+			return waterBowl;
+		}
+		return null;
+	}
+}
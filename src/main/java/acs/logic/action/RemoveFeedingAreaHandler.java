@@ -0,0 +1,29 @@
+package acs.logic.action;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.ElementBoundary;
+import acs.logic.DBElementService;
+
+@Component
+public class RemoveFeedingAreaHandler extends ElementActionHandler {
+
+	@Autowired
+	public RemoveFeedingAreaHandler(DBElementService elementService) {
+		super(elementService);
+	}
+
+	@Override
+	public String getActionType() {
+		return "remove-feeding_area";
+	}
+
+	@Override
+	public ElementBoundary handle(ActionContext context) {
+		if (isFeedingArea(context.getActionAttributes())) {
+			return removeElement(context);
+		}
+		return null;
+	}
+}
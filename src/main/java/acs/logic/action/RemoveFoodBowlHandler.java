@@ -0,0 +1,33 @@
+package acs.logic.action;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.ElementBoundary;
+import acs.logic.DBElementService;
+
+@Component
+public class RemoveFoodBowlHandler extends ElementActionHandler {
+
+	@Autowired
+	public RemoveFoodBowlHandler(DBElementService elementService) {
+		super(elementService);
+	}
+
+	@Override
+	public String getActionType() {
+		return "remove-food_bowl";
+	}
+
+	@Override
+	public ElementBoundary handle(ActionContext context) {
+		if (isFoodBowl(context.getActionAttributes())) {
+			ElementBoundary removed = removeElement(context);
+			if (removed != null) {
+				updateFeedingAreaStatus(context, removed, Operation.REMOVE);
+			}
+			return removed;
+		}
+		return null;
+	}
+}
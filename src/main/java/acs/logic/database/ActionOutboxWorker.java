@@ -0,0 +1,97 @@
+package acs.logic.database;
+
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import acs.boundaries.details.ActionId;
+import acs.logic.DBActionService;
+import acs.logic.database.exceptions.ActionLeaseLostException;
+import acs.logic.database.exceptions.ActionNotAppliedException;
+import acs.logic.database.exceptions.EntityNotFoundException;
+import acs.logic.database.exceptions.RoleMismatchException;
+
+/*
+ * Drains the ACTION_OUTBOX table with a fixed number of workers. The poller
+ * only claims as many entries as there are idle workers, so the backlog waits
+ * in the database rather than in memory.
+ */
+@Component
+public class ActionOutboxWorker {
+	private DBActionService actionService;
+	private ThreadPoolTaskExecutor workers;
+	private Semaphore idleWorkers;
+	private Log logger;
+
+	@Autowired
+	public ActionOutboxWorker(DBActionService actionService, @Value("${acs.actions.async.workers:4}") int poolSize) {
+		this.logger = LogFactory.getLog(ActionOutboxWorker.class);
+		this.actionService = actionService;
+		this.idleWorkers = new Semaphore(poolSize);
+		this.workers = new ThreadPoolTaskExecutor();
+		this.workers.setCorePoolSize(poolSize);
+		this.workers.setMaxPoolSize(poolSize);
+		this.workers.setThreadNamePrefix("action-outbox-");
+		this.workers.setWaitForTasksToCompleteOnShutdown(true);
+		this.workers.initialize();
+	}
+
+	// only entries whose lease ran out; another live instance may still be
+	// working on the rest
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${acs.actions.async.sweep-interval-ms:30000}",
+			fixedDelayString = "${acs.actions.async.sweep-interval-ms:30000}")
+	public void requeueExpiredLeases() {
+		int requeued = this.actionService.requeueExpiredLeases();
+		if (requeued > 0) {
+			this.logger.info(String.format("Requeued %d actions whose lease expired.", requeued));
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${acs.actions.async.poll-interval-ms:100}")
+	public void poll() {
+		if (this.idleWorkers.availablePermits() == 0) {
+			return;
+		}
+		for (ActionId actionId : this.actionService.claimQueuedActions(this.idleWorkers.availablePermits())) {
+			this.idleWorkers.acquireUninterruptibly();
+			this.workers.execute(() -> {
+				try {
+					process(actionId);
+				} finally {
+					this.idleWorkers.release();
+				}
+			});
+		}
+	}
+
+	private void process(ActionId actionId) {
+		try {
+			this.actionService.processQueuedAction(actionId);
+		} catch (ActionLeaseLostException e) {
+			// the instance holding the lease now finishes it
+			this.logger.warn(e.getMessage());
+		} catch (RoleMismatchException | EntityNotFoundException | ActionNotAppliedException e) {
+			// the action itself is invalid, retrying it cannot help
+			this.actionService.failQueuedAction(actionId, e.getMessage(), false);
+		} catch (RuntimeException e) {
+			this.logger.warn(String.format("Action %s failed: %s", actionId, e.getMessage()));
+			this.actionService.failQueuedAction(actionId, e.getMessage(), true);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.workers.shutdown();
+	}
+}
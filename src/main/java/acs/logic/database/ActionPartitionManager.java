@@ -0,0 +1,133 @@
+package acs.logic.database;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/*
+ * Keeps ACTIONS range partitioned by calendar month (UTC) of created_timestamp.
+ * Partitions are named pYYYYMM and hold the rows created before the first day
+ * of the following month; pmax catches anything beyond the newest one and is
+ * split ahead of time, so rows normally never land in it.
+ *
+ * With acs.actions.retention.months above zero, partitions of older months are
+ * dropped, which removes their rows without a DELETE scan. Outbox entries of
+ * those months are removed with them.
+ *
+ * MySQL wants the partitioning column in every unique key, so the primary key
+ * of ACTIONS becomes (action_domain, action_id, created_timestamp). Action ids
+ * are UUIDs assigned by the service, so (domain, id) stays unique.
+ */
+@Component
+public class ActionPartitionManager {
+	private static final String TABLE = "actions";
+	private static final String MAX_PARTITION = "pmax";
+	private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+	private JdbcTemplate jdbcTemplate;
+	private boolean enabled;
+	private int monthsAhead;
+	private int retentionMonths;
+	private Log logger;
+
+	@Autowired
+	public ActionPartitionManager(JdbcTemplate jdbcTemplate,
+			@Value("${acs.actions.partitioning.enabled:true}") boolean enabled,
+			@Value("${acs.actions.partitioning.months-ahead:3}") int monthsAhead,
+			@Value("${acs.actions.retention.months:0}") int retentionMonths) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.enabled = enabled;
+		this.monthsAhead = monthsAhead;
+		this.retentionMonths = retentionMonths;
+		this.logger = LogFactory.getLog(ActionPartitionManager.class);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(cron = "${acs.actions.partitioning.cron:0 0 3 * * *}")
+	public synchronized void maintain() {
+		if (!this.enabled) {
+			return;
+		}
+		try {
+			YearMonth now = YearMonth.now(ZoneOffset.UTC);
+			TreeSet<YearMonth> months = partitionMonths();
+			if (months.isEmpty()) {
+				partitionTable(now);
+				months = partitionMonths();
+			}
+			YearMonth newest = now.plusMonths(this.monthsAhead);
+			for (YearMonth month = months.last().plusMonths(1); !month.isAfter(newest); month = month.plusMonths(1)) {
+				this.jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+						+ partition(month) + ", PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+			}
+			if (this.retentionMonths > 0) {
+				dropExpiredPartitions(months, now.minusMonths(this.retentionMonths));
+			}
+		} catch (DataAccessException | DateTimeParseException e) {
+			this.logger.warn("Could not maintain the partitions of " + TABLE + ": " + e.getMessage());
+		}
+	}
+
+	private void partitionTable(YearMonth now) {
+		List<Timestamp> oldest = this.jdbcTemplate.queryForList("SELECT MIN(created_timestamp) FROM " + TABLE,
+				Timestamp.class);
+		YearMonth first = now;
+		if (!oldest.isEmpty() && oldest.get(0) != null) {
+			YearMonth oldestMonth = YearMonth.from(oldest.get(0).toInstant().atZone(ZoneOffset.UTC));
+			first = oldestMonth.isBefore(now) ? oldestMonth : now;
+		}
+		StringBuilder partitions = new StringBuilder();
+		for (YearMonth month = first; !month.isAfter(now); month = month.plusMonths(1)) {
+			partitions.append(partition(month)).append(", ");
+		}
+		this.logger.info("Partitioning " + TABLE + " by month from " + first);
+		this.jdbcTemplate.execute("ALTER TABLE " + TABLE
+				+ " DROP PRIMARY KEY, ADD PRIMARY KEY (action_domain, action_id, created_timestamp)");
+		this.jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(created_timestamp) ("
+				+ partitions + "PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+	}
+
+	// a partition of a month holds everything created before the next one starts
+	private void dropExpiredPartitions(TreeSet<YearMonth> months, YearMonth oldestKept) {
+		List<String> expired = months.headSet(oldestKept).stream().map(PARTITION_NAME::format)
+				.collect(Collectors.toList());
+		if (expired.isEmpty()) {
+			return;
+		}
+		this.logger.info("Dropping expired partitions " + expired + " of " + TABLE);
+		this.jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+		this.jdbcTemplate.update("DELETE FROM action_outbox WHERE enqueued_timestamp < ?",
+				Timestamp.from(oldestKept.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant()));
+	}
+
+	private String partition(YearMonth month) {
+		return "PARTITION " + PARTITION_NAME.format(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1)
+				+ " 00:00:00')";
+	}
+
+	// the months that have their own partition, empty while ACTIONS is not partitioned
+	private TreeSet<YearMonth> partitionMonths() {
+		return this.jdbcTemplate
+				.queryForList("SELECT partition_name FROM information_schema.partitions WHERE table_schema = DATABASE() "
+						+ "AND table_name = ? AND partition_name IS NOT NULL AND partition_name <> ?", String.class,
+						TABLE, MAX_PARTITION)
+				.stream().map(name -> YearMonth.parse(name, PARTITION_NAME))
+				.collect(Collectors.toCollection(TreeSet::new));
+	}
+}
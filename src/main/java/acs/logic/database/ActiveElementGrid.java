@@ -0,0 +1,367 @@
+package acs.logic.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import acs.dal.ElementDao;
+import acs.data.ElementEntity;
+import acs.data.details.ElementEntityId;
+
+/*
+ * Uniform lat/lng grid over the positions of all active elements. Positions and
+ * type codes live in primitive arrays indexed by slot, and every grid cell holds
+ * the slots that fall inside it. Changes are applied after the surrounding
+ * transaction commits, so a rolled back write never becomes visible.
+ *
+ * The grid answers with element ids only; it is disabled, and callers fall back
+ * to the database, until the startup rebuild finishes or when the number of
+ * active elements exceeds acs.cache.element-grid.max-entries.
+ */
+@Component
+public class ActiveElementGrid {
+	private static final int REBUILD_PAGE_SIZE = 1000;
+
+	private final double cellDegrees;
+	private final int maxEntries;
+	private final ElementDao elementDao;
+	private final ReadWriteLock lock;
+	private Log logger;
+
+	private double[] lats;
+	private double[] lngs;
+	private int[] typeCodes;
+	private ElementEntityId[] ids;
+	private int[] freeSlots;
+	private int freeCount;
+	private int slotCount;
+	private Map<ElementEntityId, Integer> slotsById;
+	private Map<Long, SlotList> cells;
+	private Map<String, Integer> typeCodesByName;
+	private List<String> typeNames;
+	private volatile boolean ready;
+
+	@Autowired
+	public ActiveElementGrid(ElementDao elementDao,
+			@Value("${acs.cache.element-grid.max-entries:200000}") int maxEntries,
+			@Value("${acs.cache.element-grid.cell-degrees:0.1}") double cellDegrees) {
+		this.elementDao = elementDao;
+		this.maxEntries = maxEntries;
+		this.cellDegrees = cellDegrees;
+		this.lock = new ReentrantReadWriteLock();
+		this.logger = LogFactory.getLog(ActiveElementGrid.class);
+		reset();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		this.lock.writeLock().lock();
+		try {
+			this.ready = false;
+			reset();
+			Slice<ElementEntity> slice = this.elementDao.findByActiveTrue(
+					PageRequest.of(0, REBUILD_PAGE_SIZE, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
+			while (true) {
+				for (ElementEntity element : slice.getContent()) {
+					if (!insert(element.getElementId(), element.getType(), element.getLat(), element.getLng())) {
+						disable();
+						return;
+					}
+				}
+				if (!slice.hasNext()) {
+					break;
+				}
+				slice = this.elementDao.findByActiveTrue(slice.nextPageable());
+			}
+			this.ready = this.maxEntries > 0;
+			this.logger.info(String.format("Element grid rebuilt with %d active elements.", this.slotsById.size()));
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	public boolean isReady() {
+		return this.ready;
+	}
+
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.slotsById.size();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	// records the element's current state; inactive elements are removed
+	public void put(ElementEntity element) {
+		put(element.getElementId(), element.getActive(), element.getType(), element.getLat(), element.getLng());
+	}
+
+	public void put(ElementEntityId id, Boolean isActive, String type, Double lat, Double lng) {
+		boolean active = Boolean.TRUE.equals(isActive);
+		afterCommit(() -> {
+			this.lock.writeLock().lock();
+			try {
+				if (!this.ready) {
+					return;
+				}
+				remove(id);
+				if (active && !insert(id, type, lat, lng)) {
+					disable();
+				}
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+		});
+	}
+
+	// for bulk updates that deactivate elements without loading them
+	public void removeAll(Collection<ElementEntityId> elementIds) {
+		List<ElementEntityId> removed = new ArrayList<>(elementIds);
+		afterCommit(() -> {
+			this.lock.writeLock().lock();
+			try {
+				if (this.ready) {
+					removed.forEach(this::remove);
+				}
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+		});
+	}
+
+	public void clear() {
+		afterCommit(() -> {
+			this.lock.writeLock().lock();
+			try {
+				reset();
+				this.ready = this.maxEntries > 0;
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+		});
+	}
+
+	/*
+	 * Returns the ids of the active elements inside the box (inclusive, like
+	 * BETWEEN) whose type matches the SQL LIKE pattern, in id order; null when the
+	 * grid cannot answer.
+	 */
+	public List<ElementEntityId> findIds(double minLat, double maxLat, double minLng, double maxLng,
+			String typePattern) {
+		if (!this.ready) {
+			return null;
+		}
+		this.lock.readLock().lock();
+		try {
+			if (!this.ready) {
+				return null;
+			}
+			boolean[] typeMatches = matchTypes(typePattern);
+			List<ElementEntityId> found = new ArrayList<>();
+			long minRow = cellIndex(minLat), maxRow = cellIndex(maxLat);
+			long minColumn = cellIndex(minLng), maxColumn = cellIndex(maxLng);
+			if ((maxRow - minRow + 1) * (maxColumn - minColumn + 1) > this.cells.size()) {
+				// the box spans more cells than are occupied, walk the occupied ones
+				for (SlotList cell : this.cells.values()) {
+					collect(cell, minLat, maxLat, minLng, maxLng, typeMatches, found);
+				}
+			} else {
+				for (long row = minRow; row <= maxRow; row++) {
+					for (long column = minColumn; column <= maxColumn; column++) {
+						SlotList cell = this.cells.get(cellKey(row, column));
+						if (cell != null) {
+							collect(cell, minLat, maxLat, minLng, maxLng, typeMatches, found);
+						}
+					}
+				}
+			}
+			Collections.sort(found);
+			return found;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private void collect(SlotList cell, double minLat, double maxLat, double minLng, double maxLng,
+			boolean[] typeMatches, List<ElementEntityId> found) {
+		for (int i = 0; i < cell.size; i++) {
+			int slot = cell.slots[i];
+			double lat = this.lats[slot];
+			double lng = this.lngs[slot];
+			if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng
+					&& (typeMatches == null || typeMatches[this.typeCodes[slot]])) {
+				found.add(this.ids[slot]);
+			}
+		}
+	}
+
+	// matches every known type once instead of every element
+	private boolean[] matchTypes(String typePattern) {
+		if (typePattern == null) {
+			return null;
+		}
+		StringBuilder regex = new StringBuilder();
+		for (String literal : typePattern.split("(?<=[%_])|(?=[%_])")) {
+			if (literal.equals("%")) {
+				regex.append(".*");
+			} else if (literal.equals("_")) {
+				regex.append(".");
+			} else if (!literal.isEmpty()) {
+				regex.append(Pattern.quote(literal));
+			}
+		}
+		Pattern pattern = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+		boolean[] matches = new boolean[this.typeNames.size()];
+		for (int code = 0; code < matches.length; code++) {
+			String type = this.typeNames.get(code);
+			matches[code] = type != null && pattern.matcher(type).matches();
+		}
+		return matches;
+	}
+
+	private boolean insert(ElementEntityId id, String type, Double lat, Double lng) {
+		if (lat == null || lng == null) {
+			return true;
+		}
+		if (this.slotsById.size() >= this.maxEntries) {
+			return false;
+		}
+		int slot;
+		if (this.freeCount > 0) {
+			slot = this.freeSlots[--this.freeCount];
+		} else {
+			if (this.slotCount == this.lats.length) {
+				grow();
+			}
+			slot = this.slotCount++;
+		}
+		this.lats[slot] = lat;
+		this.lngs[slot] = lng;
+		this.typeCodes[slot] = typeCode(type);
+		this.ids[slot] = id;
+		this.slotsById.put(id, slot);
+		this.cells.computeIfAbsent(cellKey(cellIndex(lat), cellIndex(lng)), key -> new SlotList()).add(slot);
+		return true;
+	}
+
+	private void remove(ElementEntityId id) {
+		Integer slot = this.slotsById.remove(id);
+		if (slot == null) {
+			return;
+		}
+		long key = cellKey(cellIndex(this.lats[slot]), cellIndex(this.lngs[slot]));
+		SlotList cell = this.cells.get(key);
+		cell.remove(slot);
+		if (cell.size == 0) {
+			this.cells.remove(key);
+		}
+		this.ids[slot] = null;
+		if (this.freeCount == this.freeSlots.length) {
+			this.freeSlots = Arrays.copyOf(this.freeSlots, Math.max(16, this.freeSlots.length * 2));
+		}
+		this.freeSlots[this.freeCount++] = slot;
+	}
+
+	private int typeCode(String type) {
+		Integer code = this.typeCodesByName.get(type);
+		if (code == null) {
+			code = this.typeNames.size();
+			this.typeNames.add(type);
+			this.typeCodesByName.put(type, code);
+		}
+		return code;
+	}
+
+	private void grow() {
+		int capacity = Math.max(16, this.lats.length * 2);
+		this.lats = Arrays.copyOf(this.lats, capacity);
+		this.lngs = Arrays.copyOf(this.lngs, capacity);
+		this.typeCodes = Arrays.copyOf(this.typeCodes, capacity);
+		this.ids = Arrays.copyOf(this.ids, capacity);
+	}
+
+	private void disable() {
+		this.ready = false;
+		reset();
+		this.logger.warn(String.format("More than %d active elements, element grid disabled until the next rebuild.",
+				this.maxEntries));
+	}
+
+	private void reset() {
+		this.lats = new double[0];
+		this.lngs = new double[0];
+		this.typeCodes = new int[0];
+		this.ids = new ElementEntityId[0];
+		this.freeSlots = new int[0];
+		this.freeCount = 0;
+		this.slotCount = 0;
+		this.slotsById = new HashMap<>();
+		this.cells = new HashMap<>();
+		this.typeCodesByName = new HashMap<>();
+		this.typeNames = new ArrayList<>();
+	}
+
+	private long cellIndex(double degrees) {
+		return (long) Math.floor(degrees / this.cellDegrees);
+	}
+
+	private static long cellKey(long row, long column) {
+		return (row << 32) ^ (column & 0xffffffffL);
+	}
+
+	private void afterCommit(Runnable change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					change.run();
+				}
+			});
+		} else {
+			change.run();
+		}
+	}
+
+	private static class SlotList {
+		private int[] slots = new int[4];
+		private int size;
+
+		private void add(int slot) {
+			if (this.size == this.slots.length) {
+				this.slots = Arrays.copyOf(this.slots, this.size * 2);
+			}
+			this.slots[this.size++] = slot;
+		}
+
+		private void remove(int slot) {
+			for (int i = 0; i < this.size; i++) {
+				if (this.slots[i] == slot) {
+					this.slots[i] = this.slots[--this.size];
+					return;
+				}
+			}
+		}
+	}
+}
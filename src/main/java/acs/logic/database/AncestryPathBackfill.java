@@ -0,0 +1,57 @@
+package acs.logic.database;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+ * Fills ancestry_path for elements stored before the column existed. Roots get
+ * their own path first, then every pass gives a path to the children of the
+ * elements that already have one, so it takes one statement per tree level.
+ * Elements caught in a cycle of bindings never reach a root and stay NULL.
+ *
+ * The segments are encoded the way AncestryPath encodes them.
+ */
+@Component
+public class AncestryPathBackfill {
+	private static final String SEGMENT = "CONCAT(REPLACE(REPLACE(REPLACE(%1$s.element_domain, '%%', '%%25'), "
+			+ "'/', '%%2F'), ':', '%%3A'), ':', REPLACE(REPLACE(REPLACE(%1$s.element_id, '%%', '%%25'), "
+			+ "'/', '%%2F'), ':', '%%3A'), '/')";
+
+	private JdbcTemplate jdbcTemplate;
+	private Log logger;
+
+	@Autowired
+	public AncestryPathBackfill(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.logger = LogFactory.getLog(AncestryPathBackfill.class);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		try {
+			int filled = this.jdbcTemplate.update("UPDATE elements e SET e.ancestry_path = CONCAT('/', "
+					+ String.format(SEGMENT, "e") + "), e.ancestry_depth = 0 "
+					+ "WHERE e.ancestry_path IS NULL AND e.father_element_id IS NULL");
+			int level;
+			do {
+				level = this.jdbcTemplate.update("UPDATE elements c JOIN elements f "
+						+ "ON c.father_element_domain = f.element_domain AND c.father_element_id = f.element_id "
+						+ "SET c.ancestry_path = CONCAT(f.ancestry_path, " + String.format(SEGMENT, "c")
+						+ "), c.ancestry_depth = f.ancestry_depth + 1 "
+						+ "WHERE c.ancestry_path IS NULL AND f.ancestry_path IS NOT NULL");
+				filled += level;
+			} while (level > 0);
+			if (filled > 0) {
+				this.logger.info("filled the ancestry path of " + filled + " elements");
+			}
+		} catch (DataAccessException e) {
+			this.logger.warn("Could not fill the ancestry paths of elements: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package acs.logic.database;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import acs.logic.util.DatePattern;
+
+/*
+ * One-shot conversion of created_timestamp from the old VARCHAR strings to a
+ * DATETIME column. It runs while the context starts, before anything reads the
+ * entities, and does nothing once the column already has the new type.
+ *
+ * Rows are converted in primary key order, batch by batch, into a temporary
+ * column that then replaces the old one.
+ */
+@Component
+public class CreatedTimestampMigration {
+	private static final String COLUMN = "created_timestamp";
+	private static final String MIGRATED_COLUMN = "created_timestamp_migrated";
+
+	private JdbcTemplate jdbcTemplate;
+	private int batchSize;
+	private Log logger;
+
+	@Autowired
+	public CreatedTimestampMigration(JdbcTemplate jdbcTemplate,
+			@Value("${acs.migration.batch-size:1000}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.batchSize = batchSize;
+		this.logger = LogFactory.getLog(CreatedTimestampMigration.class);
+	}
+
+	@PostConstruct
+	public void migrate() {
+		migrate("elements", "element_domain", "element_id", "elements_created_idx");
+		migrate("actions", "action_domain", "action_id", "actions_created_idx");
+	}
+
+	private void migrate(String table, String domainColumn, String idColumn, String index) {
+		if (!"varchar".equalsIgnoreCase(columnType(table))) {
+			return;
+		}
+		this.logger.info("converting " + table + "." + COLUMN + " to DATETIME");
+		this.jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + MIGRATED_COLUMN + " DATETIME NULL");
+
+		String select = "SELECT " + domainColumn + ", " + idColumn + ", " + COLUMN + " FROM " + table + " WHERE "
+				+ domainColumn + " > ? OR (" + domainColumn + " = ? AND " + idColumn + " > ?) ORDER BY "
+				+ domainColumn + ", " + idColumn + " LIMIT ?";
+		String update = "UPDATE " + table + " SET " + MIGRATED_COLUMN + " = ? WHERE " + domainColumn + " = ? AND "
+				+ idColumn + " = ?";
+		String lastDomain = "";
+		String lastId = "";
+		long converted = 0;
+		long unreadable = 0;
+		List<String[]> rows;
+		do {
+			rows = this.jdbcTemplate.query(select,
+					(resultSet, rowNum) -> new String[] { resultSet.getString(1), resultSet.getString(2),
+							resultSet.getString(3) },
+					lastDomain, lastDomain, lastId, this.batchSize);
+			List<Object[]> updates = new ArrayList<>();
+			for (String[] row : rows) {
+				Date created = DatePattern.parse(row[2]);
+				if (created == null) {
+					unreadable++;
+				} else {
+					updates.add(new Object[] { new Timestamp(created.getTime()), row[0], row[1] });
+				}
+			}
+			this.jdbcTemplate.batchUpdate(update, updates);
+			converted += updates.size();
+			if (!rows.isEmpty()) {
+				lastDomain = rows.get(rows.size() - 1)[0];
+				lastId = rows.get(rows.size() - 1)[1];
+			}
+		} while (rows.size() == this.batchSize);
+
+		this.jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + COLUMN + ", CHANGE COLUMN "
+				+ MIGRATED_COLUMN + " " + COLUMN + " DATETIME NULL, ADD INDEX " + index + " (" + COLUMN + ")");
+		this.logger.info("converted " + converted + " rows of " + table);
+		if (unreadable > 0) {
+			this.logger.warn(unreadable + " rows of " + table + " had an unreadable " + COLUMN + " and were left NULL");
+		}
+	}
+
+	// returns null when the table or the column does not exist yet
+	private String columnType(String table) {
+		List<String> types = this.jdbcTemplate.queryForList(
+				"SELECT data_type FROM information_schema.columns WHERE table_schema = DATABASE() "
+						+ "AND table_name = ? AND column_name = ?",
+				String.class, table, COLUMN);
+		return types.isEmpty() ? null : types.get(0);
+	}
+}
@@ -1,15 +1,23 @@
 package acs.logic.database;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,21 +28,40 @@ import org.springframework.transaction.annotation.Transactional;
 
 import acs.aop.MonitorPerformance;
 import acs.boundaries.ActionBoundary;
+import acs.boundaries.ActionQueueBoundary;
+import acs.boundaries.ActionResultBoundary;
+import acs.boundaries.ActionStatusBoundary;
 import acs.boundaries.ElementBoundary;
 import acs.boundaries.details.ActionId;
+import acs.boundaries.details.ElementId;
 import acs.boundaries.details.InvokedBy;
-import acs.boundaries.details.Location;
 import acs.boundaries.details.UserId;
 import acs.dal.ActionDao;
+import acs.dal.ActionOutboxDao;
 import acs.data.ActionEntity;
+import acs.data.ActionOutboxEntity;
+import acs.data.ActionStatus;
+import acs.data.UserRole;
+import acs.data.details.ActionEntityId;
 import acs.data.details.UserEntityId;
 import acs.logic.DBActionService;
 import acs.logic.DBElementService;
 import acs.logic.DBUserService;
+import acs.logic.KeysetPage;
+import acs.logic.action.ActionContext;
+import acs.logic.action.ActionHandler;
+import acs.logic.action.BowlCounterDelta;
+import acs.logic.database.exceptions.ActionLeaseLostException;
+import acs.logic.database.exceptions.ActionNotAppliedException;
+import acs.logic.database.exceptions.ActionQueueFullException;
+import acs.logic.database.exceptions.BatchTooLargeException;
 import acs.logic.database.exceptions.EntityDuplicationException;
+import acs.logic.database.exceptions.EntityNotFoundException;
+import acs.logic.database.exceptions.InvalidCursorException;
+import acs.logic.database.exceptions.InvalidTimeWindowException;
+import acs.logic.database.exceptions.PaginationException;
 import acs.logic.database.exceptions.RoleMismatchException;
 import acs.logic.util.ActionConverter;
-import acs.logic.util.DatePattern;
 
 @Service
 public class DatabaseActionService implements DBActionService {
@@ -42,26 +69,56 @@ public class DatabaseActionService implements DBActionService {
 	@Value("${spring.application.name:default}")
 	private String appDomain;
 
+	@Value("${acs.actions.batch.max-size:500}")
+	private int maxBatchSize;
+
+	@Value("${acs.actions.async.max-queue-depth:1000}")
+	private int maxQueueDepth;
+
+	@Value("${acs.actions.async.max-attempts:3}")
+	private int maxAttempts;
+
+	@Value("${acs.actions.async.lease-ms:60000}")
+	private long leaseMillis;
+
+	// names this instance as the holder of the outbox leases it claims
+	private String instanceId;
+
 	private ActionDao actionDao;
 
+	private ActionOutboxDao actionOutboxDao;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	private ActionConverter actionConverter;
 
 	private DBElementService elementService;
 
 	private DBUserService userService;
 
-	enum Operation {
-		CREATE, REMOVE, UPDATE
-	};
+	private Map<String, ActionHandler> actionHandlers;
+
+	private AtomicLong rejectedActions;
 
 	@Autowired
-	public DatabaseActionService(ActionDao actionDao, ActionConverter actionConverter, DBElementService elementService,
-			DBUserService userService) {
+	public DatabaseActionService(ActionDao actionDao, ActionOutboxDao actionOutboxDao, ActionConverter actionConverter,
+			DBElementService elementService, DBUserService userService, List<ActionHandler> actionHandlers) {
 		super();
 		this.actionDao = actionDao;
+		this.actionOutboxDao = actionOutboxDao;
 		this.actionConverter = actionConverter;
 		this.elementService = elementService;
 		this.userService = userService;
+		this.actionHandlers = new HashMap<>();
+		actionHandlers.forEach(handler -> {
+			if (this.actionHandlers.put(handler.getActionType(), handler) != null) {
+				throw new IllegalStateException(
+						String.format("More than one ActionHandler is registered for %s.", handler.getActionType()));
+			}
+		});
+		this.rejectedActions = new AtomicLong();
+		this.instanceId = UUID.randomUUID().toString();
 	}
 
 	@PostConstruct
@@ -90,360 +147,325 @@ public class DatabaseActionService implements DBActionService {
 		}
 	}
 
-	public boolean invokedActionIsValid(ActionBoundary actionBoundary) {
-		InvokedBy invoked = actionBoundary.getInvokedBy();
-		if (invoked == null)
-			return false;
-		String userDomain = invoked.getUserId().getDomain();
-		String userEmail = invoked.getUserId().getEmail();
-		if (this.userService.isPlayerValidation(userDomain, userEmail)) {
-			ElementBoundary elementBoundary = getElementBoundaryFromActionBoundary(actionBoundary);
-			if (elementBoundary != null) {
-				return true;
+	/*
+	 * Applies all actions in a single transaction. Items that fail validation, or
+	 * whose handler does nothing, are reported as FAILED without affecting the
+	 * rest; an exception thrown while applying an item rolls back the whole
+	 * batch and is the response, with no per-item results. This is part of the
+	 * /acs/actions/batch contract, see ActionController.
+	 */
+	@Override
+	@Transactional
+	@MonitorPerformance
+	public List<ActionResultBoundary> invokeActions(List<ActionBoundary> actions) {
+		if (actions.size() > this.maxBatchSize) {
+			throw new BatchTooLargeException(actions.size(), this.maxBatchSize);
+		}
+		ActionResultBoundary[] results = new ActionResultBoundary[actions.size()];
+		Map<UserEntityId, UserRole> roles = new HashMap<>();
+		List<Integer> accepted = new ArrayList<>();
+		for (int i = 0; i < actions.size(); i++) {
+			String rejection = validateBatchItem(actions.get(i), roles);
+			if (rejection != null) {
+				results[i] = new ActionResultBoundary(i, null, ActionStatus.FAILED.name(), rejection);
+			} else {
+				accepted.add(i);
 			}
 		}
-		return false;
-	}
+		if (accepted.isEmpty()) {
+			return Arrays.asList(results);
+		}
+
+		// every accepted invoker is a player, and all players see the same active
+		// elements, so the targets are loaded once for the whole batch
+		UserId loader = actions.get(accepted.get(0)).getInvokedBy().getUserId();
+		Map<ElementId, ElementBoundary> targets = this.elementService.getSpecificElements(loader.getDomain(),
+				loader.getEmail(), accepted.stream().map(i -> actions.get(i).getElement().getElementId())
+						.collect(Collectors.toList()));
+
+		Map<ElementId, BowlCounterDelta> bowlCounterDeltas = new LinkedHashMap<>();
+		List<ActionEntity> actionEntities = new ArrayList<>(accepted.size());
+		for (int i : accepted) {
+			ActionBoundary action = actions.get(i);
+			ElementId targetId = action.getElement().getElementId();
+			ElementBoundary targetElement = targets.get(targetId);
+			if (targetElement == null) {
+				results[i] = new ActionResultBoundary(i, null, ActionStatus.FAILED.name(),
+						String.format("Element %s was not found.", targetId));
+				continue;
+			}
 
-	private ElementBoundary getElementBoundaryFromActionBoundary(ActionBoundary actionBoundary) {
-		String actionType = actionBoundary.getType();
+			ActionContext context = new ActionContext(action, UserRole.PLAYER, targetElement);
+			ElementBoundary elementBoundary = this.actionHandlers.get(action.getType()).handle(context);
+			if (elementBoundary == null) {
+				results[i] = new ActionResultBoundary(i, null, ActionStatus.FAILED.name(),
+						String.format("Action %s cannot be applied to element %s.", action.getType(), targetId));
+				continue;
+			}
 
-		switch (actionType) {
-		case "add-food_bowl": {
-			return createFoodBowl(actionBoundary);
-		}
-		case "add-water_bowl": {
-			return createWaterBowl(actionBoundary);
-		}
-		case "add-feeding_area": {
-			return createFeedingArea(actionBoundary);
+			// later items on the same element must see this item's changes
+			if (targetId.equals(elementBoundary.getElementId())) {
+				if (elementBoundary.getActive()) {
+					targets.put(targetId, elementBoundary);
+				} else {
+					targets.remove(targetId);
+				}
+			}
+			context.getBowlCounterDeltas().forEach(delta -> bowlCounterDeltas
+					.merge(delta.getFeedingAreaId(), delta, (total, next) -> {
+						total.add(next);
+						return total;
+					}));
+
+			action.setActionId(new ActionId(appDomain, UUID.randomUUID().toString()));
+			action.setCreatedTimestamp(new Date());
+			actionEntities.add(this.actionConverter.toEntity(action));
+			results[i] = new ActionResultBoundary(i, action.getActionId(), ActionStatus.DONE.name(), null);
 		}
-		case "refill-food_bowl": {
-			return refillFoodBowl(actionBoundary);
+
+		bowlCounterDeltas.values().forEach(this::applyBowlCounterDelta);
+		this.actionDao.saveAll(actionEntities);
+		return Arrays.asList(results);
+	}
+
+	// returns the reason the item is rejected, or null when it can be applied
+	private String validateBatchItem(ActionBoundary action, Map<UserEntityId, UserRole> roles) {
+		if (action == null) {
+			return "Action is missing.";
 		}
-		case "refill-water_bowl": {
-			return refillWaterBowl(actionBoundary);
+		if (action.getActionId() != null
+				&& (action.getActionId().getDomain() != null || action.getActionId().getId() != null)) {
+			return "Action already has an id.";
 		}
-		case "remove-food_bowl": {
-			return removeFoodBowl(actionBoundary);
+		if (action.getInvokedBy() == null || action.getInvokedBy().getUserId() == null) {
+			return "Action has no invoker.";
 		}
-		case "remove-water_bowl": {
-			return removeWaterBowl(actionBoundary);
+		if (action.getElement() == null || action.getElement().getElementId() == null) {
+			return "Action has no target element.";
 		}
-		case "remove-feeding_area": {
-			return removeFeedingArea(actionBoundary);
+		if (!this.actionHandlers.containsKey(action.getType())) {
+			return String.format("Action type %s is not supported.", action.getType());
 		}
-		default:
-			return null;
+		UserId invoker = action.getInvokedBy().getUserId();
+		UserRole role = roles.computeIfAbsent(new UserEntityId(invoker.getDomain(), invoker.getEmail()),
+				userId -> resolveRole(userId.getDomain(), userId.getEmail()));
+		if (role != UserRole.PLAYER) {
+			return String.format("%s user cannot invoke actions.", invoker);
 		}
+		return null;
 	}
 
 	/*
-	 * For a creation of ElementBoundary, this function uses the "actionAttributes"
-	 * field of the input: actionBoundary.
-	 * 
+	 * Persists the action together with a PENDING outbox entry and returns at
+	 * once; ActionOutboxWorker applies the side effects later, each action in its
+	 * own transaction.
 	 */
-	private ElementBoundary createElementBoundary(ActionBoundary actionBoundary) {
-
-		Map<String, Object> attributes = actionBoundary.getActionAttributes();
-		ElementBoundary element = findElementBoundaryByElementIdField(actionBoundary);
-
-		if (element.getActive() == true) {
-			String elementType = actionBoundary.getType().split("-")[1];
-			String elementName = attributes.get("elementName").toString();
-			String managerDomain = attributes.get("managerDomain").toString();
-			String managerEmail = attributes.get("managerEmail").toString();
-			Double lat = Double.parseDouble(attributes.get("elementLat").toString());
-			Double lng = Double.parseDouble(attributes.get("elementLng").toString());
-			Location location = new Location(lat, lng);
-
-			Map<String, Object> elementAttributes = new TreeMap<>(attributes);
-			elementAttributes.remove("managerDomain");
-			elementAttributes.remove("managerEmail");
-			elementAttributes.remove("elementName");
-			elementAttributes.remove("elementLat");
-			elementAttributes.remove("elementLng");
-
-			ElementBoundary elementBoundary = new ElementBoundary(null, elementType, elementName, true, null, null,
-					location, elementAttributes);
-
-			ElementBoundary createdElement = elementService.create(managerDomain, managerEmail, elementBoundary);
-			if (createdElement != null) {
-				this.elementService.bindExistingElementToAnExistingChildElement(managerDomain, managerEmail,
-						actionBoundary.getElement().getElementId().getDomain(),
-						actionBoundary.getElement().getElementId().getId(), createdElement.getElementId());
-				return createdElement;
-			}
+	@Override
+	@Transactional
+	@MonitorPerformance
+	public ActionId enqueueAction(ActionBoundary action) {
+		if (action.getActionId() != null
+				&& (action.getActionId().getDomain() != null || action.getActionId().getId() != null)) {
+			throw new EntityDuplicationException(new UserEntityId(action.getInvokedBy().getUserId().getDomain(),
+					action.getInvokedBy().getUserId().getEmail()));
 		}
-		return null;
-	}
-
-	private ElementBoundary updateElementBoundary(ActionBoundary actionBoundary) {
-		ElementBoundary elementBoundary = findElementBoundaryByElementIdField(actionBoundary);
-		if (elementBoundary != null && elementBoundary.getActive() == true) {
-			Map<String, Object> attributes = actionBoundary.getActionAttributes();
-			String managerDomain = attributes.get("managerDomain").toString();
-			String managerEmail = attributes.get("managerEmail").toString();
-			Map<String, Object> elementAttributes = new TreeMap<>(attributes);
-			elementAttributes.remove("managerDomain");
-			elementAttributes.remove("managerEmail");
-			elementAttributes.remove("elementName");
-			elementAttributes.remove("elementLat");
-			elementAttributes.remove("elementLng");
-			elementBoundary.setElementAttributes(elementAttributes);
-			ElementBoundary updatedElementBoundary = elementService.update(managerDomain, managerEmail,
-					elementBoundary.getElementId().getDomain(), elementBoundary.getElementId().getId(),
-					elementBoundary);
-			return updatedElementBoundary;
+		InvokedBy invoked = action.getInvokedBy();
+		if (invoked == null || invoked.getUserId() == null) {
+			throw new RoleMismatchException(new UserId(), "enqueueAction");
+		}
+		if (resolveRole(invoked.getUserId().getDomain(), invoked.getUserId().getEmail()) != UserRole.PLAYER
+				|| !this.actionHandlers.containsKey(action.getType())) {
+			throw new RoleMismatchException(invoked.getUserId(), "enqueueAction");
 		}
-		return null;
-	}
-
-	private ElementBoundary findElementBoundaryByElementIdField(ActionBoundary actionBoundary) {
-		String userDomain = actionBoundary.getInvokedBy().getUserId().getDomain();
-		String userEmail = actionBoundary.getInvokedBy().getUserId().getEmail();
-		String elementDomain = actionBoundary.getElement().getElementId().getDomain();
-		String elementId = actionBoundary.getElement().getElementId().getId();
-		return elementService.getSpecificElement(userDomain, userEmail, elementDomain, elementId);
-	}
 
-	private ElementBoundary removeElementBoundary(ActionBoundary actionBoundary) {
-		ElementBoundary elementBoundary = findElementBoundaryByElementIdField(actionBoundary);
-		if (elementBoundary != null && elementBoundary.getActive() == true) {
-			elementBoundary.setActive(false);
-			Map<String, Object> attributes = actionBoundary.getActionAttributes();
-			String managerDomain = attributes.get("managerDomain").toString();
-			String managerEmail = attributes.get("managerEmail").toString();
-
-			ElementBoundary updatedElementBoundary = elementService.update(managerDomain, managerEmail,
-					elementBoundary.getElementId().getDomain(), elementBoundary.getElementId().getId(),
-					elementBoundary);
-
-			if (updatedElementBoundary != null) {
-				String userDomain = actionBoundary.getInvokedBy().getUserId().getDomain();
-				String userEmail = actionBoundary.getInvokedBy().getUserId().getEmail();
-				removeChildrenOf(userDomain, userEmail, managerDomain, managerEmail, updatedElementBoundary);
-			}
-			return updatedElementBoundary;
+		long queueDepth = getPendingActionCount();
+		if (queueDepth >= this.maxQueueDepth) {
+			this.rejectedActions.incrementAndGet();
+			throw new ActionQueueFullException(queueDepth, this.maxQueueDepth);
 		}
-		return null;
 
+		ActionId actionId = new ActionId(appDomain, UUID.randomUUID().toString());
+		action.setActionId(actionId);
+		action.setCreatedTimestamp(new Date());
+		ActionEntity actionEntity = this.actionConverter.toEntity(action);
+		this.actionDao.save(actionEntity);
+		this.actionOutboxDao.save(new ActionOutboxEntity(actionEntity.getActionId(), ActionStatus.PENDING,
+				action.getCreatedTimestamp()));
+		return actionId;
 	}
 
-	private void removeChildrenOf(String userDomain, String userEmail, String managerDomain, String managerEmail,
-			ElementBoundary updatedElementBoundary) {
-		int page = 0;
-		String elementDomain = updatedElementBoundary.getElementId().getDomain();
-		String elementId = updatedElementBoundary.getElementId().getId();
-		while (true) {
-			Collection<ElementBoundary> children = elementService.getAllChildren(userDomain, userEmail, elementDomain,
-					elementId, 20, page);
-			if (children.isEmpty()) {
-				break;
-			} else {
-				children.forEach(child -> {
-					child.setActive(false);
-					this.elementService.update(managerDomain, managerEmail, child.getElementId().getDomain(),
-							child.getElementId().getId(), child);
-				});
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public ActionStatusBoundary getActionStatus(String userDomain, String userEmail, String actionDomain,
+			String actionId) {
+		ActionEntityId actionEntityId = new ActionEntityId(actionDomain, actionId);
+		ActionEntity actionEntity = this.actionDao.findById(actionEntityId)
+				.orElseThrow(() -> new EntityNotFoundException(actionEntityId));
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.PLAYER) {
+			// players only see the actions they invoked themselves
+			if (!actionEntity.getInvokedBy().equals(new UserEntityId(userDomain, userEmail))) {
+				throw new EntityNotFoundException(actionEntityId);
 			}
-			page += 1;
+		} else if (role != UserRole.ADMIN) {
+			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getActionStatus");
 		}
-	}
 
-	private ElementBoundary createFoodBowl(ActionBoundary actionBoundary) {
-		if (isFoodBowl(actionBoundary.getActionAttributes())) {
-			ElementBoundary foodBowl = createElementBoundary(actionBoundary);
-			updateFeedingAreaStatus(foodBowl, Operation.CREATE);
-			return foodBowl;
+		ActionOutboxEntity outboxEntity = this.actionOutboxDao.findById(actionEntityId).orElse(null);
+		if (outboxEntity == null) {
+			// invoked synchronously, so it was applied before it was stored
+			return new ActionStatusBoundary(new ActionId(actionDomain, actionId), ActionStatus.DONE.name(), 1, null,
+					null, null);
 		}
-		return null;
+		return new ActionStatusBoundary(new ActionId(actionDomain, actionId), outboxEntity.getStatus().name(),
+				outboxEntity.getAttempts(), outboxEntity.getMessage(), outboxEntity.getEnqueuedTimestamp(),
+				outboxEntity.getCompletedTimestamp());
 	}
 
-	private ElementBoundary createWaterBowl(ActionBoundary actionBoundary) {
-		if (isWaterBowl(actionBoundary.getActionAttributes())) {
-			ElementBoundary waterBowl = createElementBoundary(actionBoundary);
-			updateFeedingAreaStatus(waterBowl, Operation.CREATE);
-			return waterBowl;
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public ActionQueueBoundary getActionQueue(String adminDomain, String adminEmail) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			return new ActionQueueBoundary(getPendingActionCount(),
+					this.actionOutboxDao.countByStatus(ActionStatus.PROCESSING),
+					this.actionOutboxDao.countByStatus(ActionStatus.FAILED), this.maxQueueDepth,
+					this.rejectedActions.get());
+		} else {
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "getActionQueue");
 		}
-		return null;
 	}
 
-	private ElementBoundary createFeedingArea(ActionBoundary actionBoundary) {
-		if (isFeedingArea(actionBoundary.getActionAttributes())) {
-			return createElementBoundary(actionBoundary);
-		}
-		return null;
+	@Override
+	@Transactional(readOnly = true)
+	public long getPendingActionCount() {
+		return this.actionOutboxDao.countByStatus(ActionStatus.PENDING);
 	}
 
-	private ElementBoundary refillFoodBowl(ActionBoundary actionBoundary) {
-		if (isFoodBowl(actionBoundary.getActionAttributes())) {
-			Boolean prevFoodBowlState = Boolean.parseBoolean(
-					findElementBoundaryByElementIdField(actionBoundary).getElementAttributes().get("state").toString());
-			ElementBoundary foodBowl = updateElementBoundary(actionBoundary);
-			if (foodBowl != null) {
-				if (prevFoodBowlState.booleanValue() != Boolean
-						.parseBoolean(foodBowl.getElementAttributes().get("state").toString())) {
-					updateFeedingAreaStatus(foodBowl, Operation.UPDATE);
-				}
+	@Override
+	@Transactional
+	public List<ActionId> claimQueuedActions(int maxActions) {
+		List<ActionId> claimed = new ArrayList<>();
+		if (maxActions <= 0) {
+			return claimed;
+		}
+		Date now = new Date();
+		Date leaseExpires = new Date(now.getTime() + this.leaseMillis);
+		List<ActionEntityId> claimable = this.actionOutboxDao.findAllClaimable(now, PageRequest.of(0, maxActions))
+				.stream().map(ActionOutboxEntity::getActionId).collect(Collectors.toList());
+		for (ActionEntityId actionId : claimable) {
+			if (this.actionOutboxDao.claim(actionId, this.instanceId, leaseExpires, now) == 1) {
+				claimed.add(new ActionId(actionId.getDomain(), actionId.getId()));
 			}
-			return foodBowl;
 		}
-		return null;
+		return claimed;
 	}
 
-	private ElementBoundary refillWaterBowl(ActionBoundary actionBoundary) {
-		if (isWaterBowl(actionBoundary.getActionAttributes())) {
-			Boolean prevWaterBowlState = Boolean.parseBoolean(
-					findElementBoundaryByElementIdField(actionBoundary).getElementAttributes().get("state").toString());
-			ElementBoundary waterBowl = updateElementBoundary(actionBoundary);
-			if (waterBowl != null) {
-				if (prevWaterBowlState.booleanValue() != Boolean
-						.parseBoolean(waterBowl.getElementAttributes().get("state").toString())) {
-					updateFeedingAreaStatus(waterBowl, Operation.UPDATE);
-				}
-			}
-			return waterBowl;
+	/*
+	 * The handler's effects and the DONE status commit together, and DONE is only
+	 * written while this instance still holds the lease. If the lease was lost to
+	 * another instance, everything rolls back, so an action is applied at most
+	 * once however many times it is claimed.
+	 */
+	@Override
+	@Transactional
+	@MonitorPerformance
+	public void processQueuedAction(ActionId actionId) {
+		ActionEntityId actionEntityId = new ActionEntityId(actionId.getDomain(), actionId.getId());
+		ActionBoundary action = this.actionConverter.toBoundary(this.actionDao.findById(actionEntityId)
+				.orElseThrow(() -> new EntityNotFoundException(actionEntityId)));
+		InvokedBy invoked = action.getInvokedBy();
+		if (invoked == null || resolveRole(invoked.getUserId().getDomain(),
+				invoked.getUserId().getEmail()) != UserRole.PLAYER) {
+			throw new RoleMismatchException(invoked == null ? new UserId() : invoked.getUserId(), "invokeAction");
 		}
-		return null;
-	}
-
-	private Boolean updateFeedingAreaStatus(ElementBoundary bowl, Operation op) {
-		ElementBoundary father = this.elementService
-				.getParent(bowl.getCreatedBy().getUserId().getDomain(), bowl.getCreatedBy().getUserId().getEmail(),
-						bowl.getElementId().getDomain(), bowl.getElementId().getId(), 1, 0)
-				.stream().findFirst().orElse(null);
-		if (father != null) {
-			Map<String, Object> elementAttributes = updateBowlsState(father, bowl, op);
-			father.setElementAttributes(elementAttributes);
-			this.elementService.update(father.getCreatedBy().getUserId().getDomain(),
-					father.getCreatedBy().getUserId().getEmail(), father.getElementId().getDomain(),
-					father.getElementId().getId(), father);
-			return true;
+		if (handleAction(action, UserRole.PLAYER) == null) {
+			throw new ActionNotAppliedException(actionEntityId);
+		}
+		if (this.actionOutboxDao.release(actionEntityId, this.instanceId, ActionStatus.DONE, null, new Date()) == 0) {
+			throw new ActionLeaseLostException(actionEntityId);
 		}
-		return false;
-	}
-
-	private Map<String, Object> updateBowlsState(ElementBoundary feedingArea, ElementBoundary bowl, Operation op) {
-		Map<String, Object> elementAttributes = feedingArea.getElementAttributes();
-		Boolean bowlState = Boolean.parseBoolean(bowl.getElementAttributes().get("state").toString());
-		int newVal = 0;
-		switch (bowl.getType()) {
-		case "food_bowl":
-			newVal = (int) elementAttributes.get("fullFoodBowl") + byOperation(op, bowlState);
-			elementAttributes.put("fullFoodBowl", newVal < 0 ? 0 : newVal);
-			break;
-		case "water_bowl":
-			newVal = (int) elementAttributes.get("fullWaterBowl") + byOperation(op, bowlState);
-			elementAttributes.put("fullWaterBowl", newVal < 0 ? 0 : newVal);
-			break;
-		}
-		return elementAttributes;
 	}
 
-	private Integer byOperation(Operation op, Boolean bowlState) {
-		Integer ret = 0;
-		switch (op) {
-		case CREATE:
-			if (bowlState) {
-				ret = 1;
-			} else {
-				ret = 0;
-			}
-			break;
-		case UPDATE:
-			if (bowlState) {
-				ret = 1;
-			} else {
-				ret = -1;
-			}
-			break;
-		case REMOVE:
-			if (bowlState) {
-				ret = -1;
+	@Override
+	@Transactional
+	public void failQueuedAction(ActionId actionId, String message, boolean retry) {
+		ActionEntityId actionEntityId = new ActionEntityId(actionId.getDomain(), actionId.getId());
+		this.actionOutboxDao.findById(actionEntityId).ifPresent(outboxEntity -> {
+			String storedMessage = message != null && message.length() > 255 ? message.substring(0, 255) : message;
+			// release() does not touch an entry whose lease passed to another instance
+			if (retry && outboxEntity.getAttempts() + 1 < this.maxAttempts) {
+				this.actionOutboxDao.release(actionEntityId, this.instanceId, ActionStatus.PENDING, storedMessage,
+						null);
 			} else {
-				ret = 0;
+				this.actionOutboxDao.release(actionEntityId, this.instanceId, ActionStatus.FAILED, storedMessage,
+						new Date());
 			}
-		}
-		return ret;
+		});
 	}
 
-	private ElementBoundary removeFoodBowl(ActionBoundary actionBoundary) {
-		if (isFoodBowl(actionBoundary.getActionAttributes())) {
-			ElementBoundary removed = removeElementBoundary(actionBoundary);
-			if (removed != null)
-				updateFeedingAreaStatus(removed, Operation.REMOVE);
-			return removed;
-		}
-		return null;
-	}
-
-	private ElementBoundary removeWaterBowl(ActionBoundary actionBoundary) {
-		if (isWaterBowl(actionBoundary.getActionAttributes())) {
-			ElementBoundary removed = removeElementBoundary(actionBoundary);
-			if (removed != null)
-				updateFeedingAreaStatus(removed, Operation.REMOVE);
-			return removed;
-		}
-		return null;
+	// entries whose holder stopped or stalled past its lease are picked up again;
+	// live leases, of this instance or another, are left alone
+	@Override
+	@Transactional
+	public int requeueExpiredLeases() {
+		return this.actionOutboxDao.requeueExpiredLeases(new Date());
 	}
 
-	private ElementBoundary removeFeedingArea(ActionBoundary actionBoundary) {
-		if (isFeedingArea(actionBoundary.getActionAttributes())) {
-			return removeElementBoundary(actionBoundary);
-		}
-		return null;
+	private UserRole resolveRole(String userDomain, String userEmail) {
+		return this.userService.resolveRole(userDomain, userEmail).orElse(null);
 	}
 
-	private boolean isFoodBowl(Map<String, Object> actionAttributes) {
-		// Check keys and values
-		try {
-			Boolean state = Boolean.parseBoolean(actionAttributes.get("state").toString());
-			String animal = (String) actionAttributes.get("animal");
-			String brand = (String) actionAttributes.get("brand");
-			Integer weight = Integer.parseInt(actionAttributes.get("weight").toString());
-			String lastFillDate = actionAttributes.get("lastFillDate").toString();
-			if (state == null || animal == null || brand == null || weight == null
-					|| !DatePattern.isDate(lastFillDate)) {
-				throw new RuntimeException(actionAttributes.toString() + " does not describe a valid Food Bowl!");
-			}
-		} catch (RuntimeException e) {
+	public boolean invokedActionIsValid(ActionBoundary actionBoundary) {
+		InvokedBy invoked = actionBoundary.getInvokedBy();
+		if (invoked == null)
 			return false;
+		String userDomain = invoked.getUserId().getDomain();
+		String userEmail = invoked.getUserId().getEmail();
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.PLAYER) {
+			ElementBoundary elementBoundary = handleAction(actionBoundary, role);
+			if (elementBoundary != null) {
+				return true;
+			}
 		}
-		return true;
+		return false;
 	}
 
-	private boolean isWaterBowl(Map<String, Object> actionAttributes) {
-		// Check keys and values
-		try {
-			Boolean state = Boolean.parseBoolean(actionAttributes.get("state").toString());
-			String waterQuality = (String) actionAttributes.get("waterQuality");
-			if (state == null || waterQuality == null)
-				throw new RuntimeException(actionAttributes.toString() + " does not describe a valid Water Bowl!");
-		} catch (RuntimeException e) {
-			return false;
+	private ElementBoundary handleAction(ActionBoundary actionBoundary, UserRole invokerRole) {
+		ActionHandler handler = this.actionHandlers.get(actionBoundary.getType());
+		if (handler == null) {
+			return null;
 		}
-		return true;
+
+		// the target element is loaded once and shared with the handler
+		ElementBoundary targetElement = this.elementService.getSpecificElement(
+				actionBoundary.getInvokedBy().getUserId().getDomain(),
+				actionBoundary.getInvokedBy().getUserId().getEmail(),
+				actionBoundary.getElement().getElementId().getDomain(),
+				actionBoundary.getElement().getElementId().getId());
+		ActionContext context = new ActionContext(actionBoundary, invokerRole, targetElement);
+		ElementBoundary elementBoundary = handler.handle(context);
+		context.getBowlCounterDeltas().forEach(this::applyBowlCounterDelta);
+		return elementBoundary;
 	}
 
-	private boolean isFeedingArea(Map<String, Object> actionAttributes) {
-		// Check keys and values
-		try {
-			Integer fullFoodBowl = Integer.parseInt(actionAttributes.get("fullFoodBowl").toString());
-			Integer fullWaterBowl = Integer.parseInt(actionAttributes.get("fullWaterBowl").toString());
-			if (fullFoodBowl == null || fullWaterBowl == null)
-				throw new RuntimeException(actionAttributes.toString() + " does not describe a valid Feeding Area!");
-		} catch (Exception e) {
-			return false;
+	// a single atomic UPDATE, so concurrent refills of the same feeding area are
+	// not lost
+	private void applyBowlCounterDelta(BowlCounterDelta delta) {
+		if (!delta.isEmpty()) {
+			this.elementService.addToBowlCounters(delta.getManagerDomain(), delta.getManagerEmail(),
+					delta.getFeedingAreaId().getDomain(), delta.getFeedingAreaId().getId(), delta.getFullFoodBowl(),
+					delta.getFullWaterBowl());
 		}
-		return true;
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public List<ActionBoundary> getAllActions(String adminDomain, String adminEmail) {
-		if (this.userService.isAdminValidation(adminDomain, adminEmail)) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
 			return StreamSupport.stream(this.actionDao.findAll().spliterator(), false)
 					.map(this.actionConverter::toBoundary).collect(Collectors.toList());
 		} else {
@@ -455,7 +477,7 @@ public class DatabaseActionService implements DBActionService {
 	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public Collection<ActionBoundary> getAllActions(String adminDomain, String adminEmail, int size, int page) {
-		if (this.userService.isAdminValidation(adminDomain, adminEmail)) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
 			return this.actionDao
 					.findAll(PageRequest.of(page, size, Direction.ASC, "actionId.actionDomain", "actionId.actionId"))
 					.getContent().stream().map(this.actionConverter::toBoundary).collect(Collectors.toList());
@@ -464,14 +486,156 @@ public class DatabaseActionService implements DBActionService {
 		}
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public Collection<ActionBoundary> getActionsCreatedBetween(String adminDomain, String adminEmail, Date from,
+			Date to, int size, int page) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			if (size <= 0 || page < 0) {
+				throw new PaginationException(page, size);
+			}
+			if (from == null || to == null || !from.before(to)) {
+				throw new InvalidTimeWindowException(from, to);
+			}
+			return this.actionDao
+					.findAllCreatedBetween(from, to, PageRequest.of(page, size, Direction.ASC, "createdTimestamp",
+							"actionId.actionDomain", "actionId.actionId"))
+					.stream().map(this.actionConverter::toBoundary).collect(Collectors.toList());
+		} else {
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "getActionsCreatedBetween");
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ActionBoundary> getAllActionsAfter(String adminDomain, String adminEmail, String cursor,
+			int size) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			if (size <= 0) {
+				throw new PaginationException(0, size);
+			}
+			String[] after = KeysetPage.decode(cursor);
+			return KeysetPage.of(this.actionDao.findAllAfter(after[0], after[1], PageRequest.of(0, size + 1)), size,
+					this.actionConverter::toBoundary,
+					action -> new String[] { action.getActionId().getDomain(), action.getActionId().getId() });
+		} else {
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "getAllActions");
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ActionBoundary> getActionsOfElement(String adminDomain, String adminEmail,
+			String elementDomain, String elementId, String type, Date from, Date to, String cursor, int size) {
+		CreatedWindow window = createdWindow(adminDomain, adminEmail, "getActionsOfElement", from, to, cursor, size);
+		return toCreatedKeysetPage(this.actionDao.findAllByElementCreatedAfter(elementDomain, elementId, type,
+				window.from, window.to, window.afterCreated, window.afterDomain, window.afterId,
+				PageRequest.of(0, size + 1)), size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ActionBoundary> getActionsOfInvoker(String adminDomain, String adminEmail, String userDomain,
+			String userEmail, String type, Date from, Date to, String cursor, int size) {
+		CreatedWindow window = createdWindow(adminDomain, adminEmail, "getActionsOfInvoker", from, to, cursor, size);
+		return toCreatedKeysetPage(this.actionDao.findAllByInvokerCreatedAfter(userDomain, userEmail, type,
+				window.from, window.to, window.afterCreated, window.afterDomain, window.afterId,
+				PageRequest.of(0, size + 1)), size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ActionBoundary> getActionsOfType(String adminDomain, String adminEmail, String type, Date from,
+			Date to, String cursor, int size) {
+		CreatedWindow window = createdWindow(adminDomain, adminEmail, "getActionsOfType", from, to, cursor, size);
+		return toCreatedKeysetPage(this.actionDao.findAllByTypeCreatedAfter(type, window.from, window.to,
+				window.afterCreated, window.afterDomain, window.afterId, PageRequest.of(0, size + 1)), size);
+	}
+
+	private CreatedWindow createdWindow(String adminDomain, String adminEmail, String methodName, Date from, Date to,
+			String cursor, int size) {
+		if (resolveRole(adminDomain, adminEmail) != UserRole.ADMIN) {
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), methodName);
+		}
+		if (size <= 0) {
+			throw new PaginationException(0, size);
+		}
+		return new CreatedWindow(from, to, cursor);
+	}
+
+	// the cursor of a creation ordered page is (created millis, domain, id)
+	private KeysetPage<ActionBoundary> toCreatedKeysetPage(List<ActionEntity> rows, int size) {
+		return KeysetPage.of(rows, size, this.actionConverter::toBoundary,
+				action -> new String[] { String.valueOf(action.getCreatedTimestamp().getTime()),
+						action.getActionId().getDomain(), action.getActionId().getId() });
+	}
+
+	/*
+	 * Hands every action to the consumer while the rows are still being read, so
+	 * memory use does not grow with the table. Each entity is detached once
+	 * converted, keeping the persistence context empty.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public void exportAllActions(String adminDomain, String adminEmail, Consumer<ActionBoundary> consumer) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			try (Stream<ActionEntity> actions = this.actionDao.streamAll()) {
+				actions.forEach(actionEntity -> {
+					consumer.accept(this.actionConverter.toBoundary(actionEntity));
+					this.entityManager.detach(actionEntity);
+				});
+			}
+		} else {
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "exportAllActions");
+		}
+	}
+
 	@Override
 	@Transactional
 	@MonitorPerformance
-	public void deleteAllActions(String adminDomain, String adminEmail) {
-		if (this.userService.isAdminValidation(adminDomain, adminEmail)) {
-			this.actionDao.deleteAll();
+	public long deleteAllActions(String adminDomain, String adminEmail) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			this.actionOutboxDao.deleteAllInBulk();
+			return this.actionDao.deleteAllInBulk();
 		} else {
 			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "deleteAllActions");
 		}
 	}
+
+	/*
+	 * A [from, to) creation window and the position of a cursor inside it. A
+	 * missing end is now and a missing start is one day before the end; an empty
+	 * cursor starts at the beginning of the window.
+	 */
+	private static class CreatedWindow {
+		private static final long DEFAULT_WINDOW_MILLIS = 24 * 60 * 60 * 1000L;
+
+		private final Date from;
+		private final Date to;
+		private final Date afterCreated;
+		private final String afterDomain;
+		private final String afterId;
+
+		private CreatedWindow(Date from, Date to, String cursor) {
+			this.to = to != null ? to : new Date();
+			this.from = from != null ? from : new Date(this.to.getTime() - DEFAULT_WINDOW_MILLIS);
+			if (!this.from.before(this.to)) {
+				throw new InvalidTimeWindowException(this.from, this.to);
+			}
+			String[] after = KeysetPage.decode(cursor, 3);
+			try {
+				this.afterCreated = after[0].isEmpty() ? this.from : new Date(Long.parseLong(after[0]));
+			} catch (NumberFormatException e) {
+				throw new InvalidCursorException(cursor);
+			}
+			this.afterDomain = after[1];
+			this.afterId = after[2];
+		}
+	}
 }
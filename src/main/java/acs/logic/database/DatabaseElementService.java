@@ -2,8 +2,14 @@ package acs.logic.database;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -23,36 +29,58 @@ import acs.boundaries.details.CreatedBy;
 import acs.boundaries.details.ElementId;
 import acs.boundaries.details.UserId;
 import acs.dal.ElementDao;
+import acs.data.AncestryPath;
 import acs.data.ElementEntity;
+import acs.data.ElementView;
+import acs.data.GeoHash;
+import acs.data.MapToJsonConverter;
+import acs.data.UserRole;
 import acs.data.details.ElementEntityId;
 import acs.logic.DBElementService;
 import acs.logic.DBUserService;
+import acs.logic.KeysetPage;
 import acs.logic.database.exceptions.EntityNotFoundException;
+import acs.logic.database.exceptions.InvalidBindingException;
+import acs.logic.database.exceptions.InvalidDepthException;
+import acs.logic.database.exceptions.InvalidTimeWindowException;
 import acs.logic.database.exceptions.PaginationException;
+import acs.logic.database.exceptions.RadiusTooLargeException;
 import acs.logic.database.exceptions.RoleMismatchException;
 import acs.logic.util.ElementConverter;
 
 @Service
 public class DatabaseElementService implements DBElementService {
+	private static final int MAX_DESCENDANT_DEPTH = 100;
+	private static final MapToJsonConverter ATTRIBUTES_JSON = new MapToJsonConverter();
+
 	private ElementDao elementDao;
 	private ElementConverter elementConverter;
 	private DBUserService userService;
+	private ActiveElementGrid elementGrid;
+	private ElementAttributeIndexes attributeIndexes;
 
 	@Value("${spring.application.name:default}")
 	private String appDomain;
 
 	@Autowired
-	public DatabaseElementService(ElementDao elementDao, ElementConverter elementConverter, DBUserService userService) {
+	public DatabaseElementService(ElementDao elementDao, ElementConverter elementConverter, DBUserService userService,
+			ActiveElementGrid elementGrid, ElementAttributeIndexes attributeIndexes) {
 		super();
 		this.elementDao = elementDao;
 		this.elementConverter = elementConverter;
 		this.userService = userService;
+		this.elementGrid = elementGrid;
+		this.attributeIndexes = attributeIndexes;
 	}
 
 	@PostConstruct
 	public void init() {
 	}
 
+	private UserRole resolveRole(String userDomain, String userEmail) {
+		return this.userService.resolveRole(userDomain, userEmail).orElse(null);
+	}
+
 	private boolean isElementActive(ElementBoundary elementBoundary) {
 		return (elementBoundary != null && elementBoundary.getActive());
 	}
@@ -62,7 +90,7 @@ public class DatabaseElementService implements DBElementService {
 	@MonitorPerformance
 	public ElementBoundary create(String managerDomain, String managerEmail, ElementBoundary elementBoundary)
 			throws RuntimeException {
-		if (this.userService.isManagerValidation(managerDomain, managerEmail)) {
+		if (resolveRole(managerDomain, managerEmail) == UserRole.MANAGER) {
 			if (elementBoundary.getElementId() == null) {
 				CreatedBy created = new CreatedBy(new UserId(managerDomain, managerEmail));
 				elementBoundary.setCreatedBy(created);
@@ -70,6 +98,7 @@ public class DatabaseElementService implements DBElementService {
 				elementBoundary.setElementId(new ElementId(appDomain, UUID.randomUUID().toString()));
 				ElementEntity elementEntity = this.elementConverter.toEntity(elementBoundary);
 				this.elementDao.save(elementEntity);
+				this.elementGrid.put(elementEntity);
 				return this.elementConverter.toBoundary(elementEntity);
 			} else {
 				throw new RuntimeException(String.format(
@@ -87,7 +116,7 @@ public class DatabaseElementService implements DBElementService {
 	@MonitorPerformance
 	public ElementBoundary update(String managerDomain, String managerEmail, String elementDomain, String elementId,
 			ElementBoundary update) {
-		if (this.userService.isManagerValidation(managerDomain, managerEmail)) {
+		if (resolveRole(managerDomain, managerEmail) == UserRole.MANAGER) {
 			ElementEntityId elemId = new ElementEntityId(elementDomain, elementId);
 			ElementEntity elementEntity = this.getEntityElementFromDB(elemId);
 			if (elementEntity != null) {
@@ -105,9 +134,18 @@ public class DatabaseElementService implements DBElementService {
 					elementEntity.setLng(update.getLocation().getLng());
 				}
 				if (update.getElementAttributes() != null) {
-					elementEntity.setElementAttributes(update.getElementAttributes());
+					this.elementConverter.applyAttributes(elementEntity, update.getElementAttributes());
 				}
 				this.elementDao.save(elementEntity);
+				// the counters change only when a PUT on a feeding area sets one of them
+				if (update.getElementAttributes() != null
+						&& ElementConverter.FEEDING_AREA_TYPE.equals(elementEntity.getType())
+						&& (update.getElementAttributes().containsKey(ElementConverter.FULL_FOOD_BOWL)
+								|| update.getElementAttributes().containsKey(ElementConverter.FULL_WATER_BOWL))) {
+					this.elementDao.setBowlCounters(elementDomain, elementId, elementEntity.getFullFoodBowl(),
+							elementEntity.getFullWaterBowl());
+				}
+				this.elementGrid.put(elementEntity);
 				return this.elementConverter.toBoundary(elementEntity);
 			} else {
 				throw new EntityNotFoundException(elemId);
@@ -117,6 +155,61 @@ public class DatabaseElementService implements DBElementService {
 		}
 	}
 
+	/*
+	 * Applies only the given fields and attributes, with one UPDATE and without
+	 * loading the element. The grid is re-read only when the patch can move the
+	 * element in it.
+	 */
+	@Override
+	@Transactional
+	@MonitorPerformance
+	public void patch(String managerDomain, String managerEmail, String elementDomain, String elementId,
+			ElementBoundary patch) {
+		if (resolveRole(managerDomain, managerEmail) != UserRole.MANAGER) {
+			throw new RoleMismatchException(new UserId(managerDomain, managerEmail), "patchElement");
+		}
+		ElementEntityId elemId = new ElementEntityId(elementDomain, elementId);
+		Map<String, Object> columns = new LinkedHashMap<>();
+		if (patch.getType() != null) {
+			columns.put("type", patch.getType());
+		}
+		if (patch.getName() != null) {
+			columns.put("name", patch.getName());
+		}
+		if (patch.getActive() != null) {
+			columns.put("active", patch.getActive());
+		}
+		if (patch.getLocation() != null) {
+			columns.put("lat", patch.getLocation().getLat());
+			columns.put("lng", patch.getLocation().getLng());
+			columns.put("geohash", GeoHash.encode(patch.getLocation().getLat(), patch.getLocation().getLng()));
+		}
+		String attributesPatch = null;
+		String feedingAreaAttributesPatch = null;
+		Map<String, Integer> counters = Collections.emptyMap();
+		if (patch.getElementAttributes() != null) {
+			Map<String, Object> feedingAreaAttributes = new TreeMap<>(patch.getElementAttributes());
+			counters = this.elementConverter.extractCounters(feedingAreaAttributes);
+			attributesPatch = ATTRIBUTES_JSON.convertToDatabaseColumn(patch.getElementAttributes());
+			feedingAreaAttributesPatch = ATTRIBUTES_JSON.convertToDatabaseColumn(feedingAreaAttributes);
+		}
+
+		if (columns.isEmpty() && attributesPatch == null) {
+			if (!this.elementDao.existsById(elemId)) {
+				throw new EntityNotFoundException(elemId);
+			}
+			return;
+		}
+		if (this.elementDao.patch(elemId, columns, attributesPatch, ElementConverter.FEEDING_AREA_TYPE,
+				feedingAreaAttributesPatch, counters) == 0) {
+			throw new EntityNotFoundException(elemId);
+		}
+		if (columns.containsKey("type") || columns.containsKey("active") || columns.containsKey("lat")) {
+			this.elementDao.findGridState(elemId).forEach(state -> this.elementGrid.put(elemId, (Boolean) state[0],
+					(String) state[1], (Double) state[2], (Double) state[3]));
+		}
+	}
+
 	private ElementEntity getEntityElementFromDB(ElementEntityId elemId) {
 		return this.elementDao.findById(elemId).orElseThrow(() -> new EntityNotFoundException(elemId));
 	}
@@ -125,10 +218,11 @@ public class DatabaseElementService implements DBElementService {
 	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public List<ElementBoundary> getAll(String userDomain, String userEmail) {
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.MANAGER) {
 			return StreamSupport.stream(this.elementDao.findAll().spliterator(), false)
 					.map(this.elementConverter::toBoundary).collect(Collectors.toList());
-		} else if (this.userService.isPlayerValidation(userDomain, userEmail)) {
+		} else if (role == UserRole.PLAYER) {
 			return StreamSupport.stream(this.elementDao.findAll().spliterator(), false)
 					.map(this.elementConverter::toBoundary).filter(e -> isElementActive(e) == true)
 					.collect(Collectors.toList());
@@ -142,21 +236,8 @@ public class DatabaseElementService implements DBElementService {
 	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public Collection<ElementBoundary> getAll(String userDomain, String userEmail, int size, int page) {
-		List<ElementEntity> entities;
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
-			entities = this.elementDao
-					.findAll(
-							PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"))
-					.getContent();
-		} else if (this.userService.isPlayerValidation(userDomain, userEmail)) {
-			entities = this.elementDao
-					.findByActiveTrue(
-							PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"))
-					.getContent();
-		} else {
-			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getAllElements");
-		}
-		return entities.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getAllElements");
+		return toBoundaries(this.elementDao.findAllViews(activeOnly, PageRequest.of(page, size)));
 	}
 
 	@Override
@@ -165,10 +246,11 @@ public class DatabaseElementService implements DBElementService {
 	public ElementBoundary getSpecificElement(String userDomain, String userEmail, String elementDomain,
 			String elementId) {
 		ElementEntityId elemId = new ElementEntityId(elementDomain, elementId);
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.MANAGER) {
 			return this.elementConverter.toBoundary(getEntityElementFromDB(elemId));
 		}
-		if (this.userService.isPlayerValidation(userDomain, userEmail)) {
+		if (role == UserRole.PLAYER) {
 			ElementBoundary elementBoundary = this.elementConverter.toBoundary(getEntityElementFromDB(elemId));
 			if (isElementActive(elementBoundary)) {
 				return elementBoundary;
@@ -181,12 +263,35 @@ public class DatabaseElementService implements DBElementService {
 
 	}
 
+	// elements the user cannot see are left out of the result instead of failing
+	// the whole lookup
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public Map<ElementId, ElementBoundary> getSpecificElements(String userDomain, String userEmail,
+			Collection<ElementId> elementIds) {
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.MANAGER || role == UserRole.PLAYER) {
+			List<ElementEntityId> ids = elementIds.stream().distinct().map(this.elementConverter::toEntityId)
+					.collect(Collectors.toList());
+			return StreamSupport.stream(this.elementDao.findAllById(ids).spliterator(), false)
+					.map(this.elementConverter::toBoundary)
+					.filter(elementBoundary -> role == UserRole.MANAGER || isElementActive(elementBoundary))
+					.collect(Collectors.toMap(ElementBoundary::getElementId, elementBoundary -> elementBoundary));
+		} else {
+			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getSpecificElements");
+		}
+	}
+
 	@Override
 	@Transactional
 	@MonitorPerformance
-	public void deleteAllElements(String adminDomain, String adminEmail) {
-		if (this.userService.isAdminValidation(adminDomain, adminEmail)) {
-			this.elementDao.deleteAll();
+	public long deleteAllElements(String adminDomain, String adminEmail) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			this.elementDao.detachAllFromFathers();
+			int deleted = this.elementDao.deleteAllInBulk();
+			this.elementGrid.clear();
+			return deleted;
 		} else {
 			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "deteleAllElements Method");
 		}
@@ -197,18 +302,36 @@ public class DatabaseElementService implements DBElementService {
 	@MonitorPerformance
 	public void bindExistingElementToAnExistingChildElement(String managerDomain, String managerEmail,
 			String elementDomain, String elementId, ElementId elementChildId) {
-		if (this.userService.isManagerValidation(managerDomain, managerEmail)) {
+		if (resolveRole(managerDomain, managerEmail) == UserRole.MANAGER) {
 			ElementEntityId fatherId = new ElementEntityId(elementDomain, elementId);
 			ElementEntityId childId = this.elementConverter.toEntityId(elementChildId);
 
-			ElementEntity father = this.elementDao.findById(fatherId)
+			// the paths are checked and moved under row locks, a concurrent bind
+			// could otherwise move the father below the child after the check
+			List<ElementEntity> locked = this.elementDao.findBothForUpdate(fatherId, childId);
+			ElementEntity father = locked.stream().filter(e -> e.getElementId().equals(fatherId)).findFirst()
 					.orElseThrow(() -> new EntityNotFoundException(fatherId));
-
-			ElementEntity child = this.elementDao.findById(childId)
+			ElementEntity child = locked.stream().filter(e -> e.getElementId().equals(childId)).findFirst()
 					.orElseThrow(() -> new EntityNotFoundException(childId));
 
-			father.addChild(child);
-			this.elementDao.save(father);
+			// the backfill leaves no path on elements caught in a cycle of bindings
+			if (father.getAncestryPath() == null || child.getAncestryPath() == null) {
+				throw new InvalidBindingException(fatherId, childId, "a cycle of bindings has no ancestry path");
+			}
+			if (fatherId.equals(childId) || AncestryPath.isUnder(father.getAncestryPath(), child.getAncestryPath())) {
+				throw new InvalidBindingException(fatherId, childId, "the father is in the subtree of the child");
+			}
+			String oldPath = child.getAncestryPath();
+			String newPath = AncestryPath.child(father.getAncestryPath(), childId);
+			String pattern = AncestryPath.subtreePattern(oldPath);
+			if (this.elementDao.findLongestPathInSubtree(pattern) + newPath.length()
+					- oldPath.length() > AncestryPath.MAX_LENGTH) {
+				throw new InvalidBindingException(fatherId, childId, "the tree would be too deep");
+			}
+
+			this.elementDao.bindToFather(elementDomain, elementId, childId.getDomain(), childId.getId());
+			this.elementDao.moveSubtree(pattern, oldPath.length(), newPath,
+					AncestryPath.depth(newPath) - AncestryPath.depth(oldPath));
 		} else {
 			throw new RoleMismatchException(new UserId(managerDomain, managerEmail),
 					"bindExistingElementToAnExistingChildElement");
@@ -222,10 +345,11 @@ public class DatabaseElementService implements DBElementService {
 			String elementId, int size, int page) {
 		List<ElementEntity> entities;
 		ElementEntityId fatherId = new ElementEntityId(elementDomain, elementId);
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.MANAGER) {
 			entities = this.elementDao.findAllByFather_ElementId(fatherId,
 					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
-		} else if (this.userService.isPlayerValidation(userDomain, userEmail)) {
+		} else if (role == UserRole.PLAYER) {
 			entities = this.elementDao.findAllByFather_ElementIdAndActiveTrue(fatherId,
 					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
 		} else {
@@ -234,6 +358,78 @@ public class DatabaseElementService implements DBElementService {
 		return entities.stream().map(this.elementConverter::toBoundary).collect(Collectors.toSet());
 	}
 
+	/*
+	 * Deactivates the element and all of its descendants with a single recursive
+	 * UPDATE and returns how many of them were active.
+	 */
+	@Override
+	@Transactional
+	@MonitorPerformance
+	public int deactivateSubtree(String managerDomain, String managerEmail, String elementDomain, String elementId) {
+		if (resolveRole(managerDomain, managerEmail) == UserRole.MANAGER) {
+			ElementEntityId rootId = new ElementEntityId(elementDomain, elementId);
+			if (!this.elementDao.existsById(rootId)) {
+				throw new EntityNotFoundException(rootId);
+			}
+			if (this.elementGrid.isReady()) {
+				this.elementGrid.removeAll(this.elementDao.findActiveSubtreeIds(elementDomain, elementId).stream()
+						.map(row -> new ElementEntityId((String) row[0], (String) row[1])).collect(Collectors.toList()));
+			}
+			return this.elementDao.deactivateSubtree(elementDomain, elementId);
+		} else {
+			throw new RoleMismatchException(new UserId(managerDomain, managerEmail), "deactivateSubtree");
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public List<ElementBoundary> getDescendants(String userDomain, String userEmail, String elementDomain,
+			String elementId, int depth) {
+		if (depth < 1 || depth > MAX_DESCENDANT_DEPTH) {
+			throw new InvalidDepthException(depth, MAX_DESCENDANT_DEPTH);
+		}
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getDescendants");
+		ElementEntityId rootId = new ElementEntityId(elementDomain, elementId);
+		ElementEntity root = getEntityElementFromDB(rootId);
+		List<ElementEntity> subtree = this.elementDao.findAllInSubtree(
+				AncestryPath.subtreePattern(root.getAncestryPath()), root.getAncestryDepth(),
+				root.getAncestryDepth() + depth, activeOnly);
+
+		// rows come level by level, so a father is always seen before his children;
+		// players do not see below an inactive element
+		Set<String> visiblePaths = new HashSet<>();
+		visiblePaths.add(root.getAncestryPath());
+		List<ElementBoundary> descendants = new ArrayList<>();
+		for (ElementEntity entity : subtree) {
+			if (visiblePaths.contains(AncestryPath.fatherPath(entity.getAncestryPath()))) {
+				visiblePaths.add(entity.getAncestryPath());
+				descendants.add(this.elementConverter.toBoundary(entity));
+			}
+		}
+		return descendants;
+	}
+
+	/*
+	 * The ancestors of an element from its root down to its father, read by
+	 * primary key from the element's path.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public List<ElementBoundary> getAncestors(String userDomain, String userEmail, String elementDomain,
+			String elementId) {
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getAncestors");
+		ElementEntity element = getEntityElementFromDB(new ElementEntityId(elementDomain, elementId));
+		List<ElementEntityId> ancestorIds = AncestryPath.ancestorIds(element.getAncestryPath());
+		Map<ElementEntityId, ElementEntity> ancestors = StreamSupport
+				.stream(this.elementDao.findAllById(ancestorIds).spliterator(), false)
+				.collect(Collectors.toMap(ElementEntity::getElementId, entity -> entity));
+		return ancestorIds.stream().map(ancestors::get)
+				.filter(entity -> entity != null && (!activeOnly || entity.getActive()))
+				.map(this.elementConverter::toBoundary).collect(Collectors.toList());
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	@MonitorPerformance
@@ -247,12 +443,17 @@ public class DatabaseElementService implements DBElementService {
 			throw new PaginationException(page, size);
 		}
 
-		ElementEntity child = this.elementDao.findById(childId).orElseThrow(() -> new EntityNotFoundException(childId));
-
-		ElementEntity father = child.getFather();
+		ElementEntity father = this.elementDao.findFatherOf(childId).orElse(null);
+		if (father == null) {
+			// a root has no father, only a missing child is an error
+			if (!this.elementDao.existsById(childId)) {
+				throw new EntityNotFoundException(childId);
+			}
+			return fatherAsList;
+		}
 
-		if (this.userService.isManagerValidation(userDomain, userEmail)
-				|| (this.userService.isPlayerValidation(userDomain, userEmail) && father.getActive())) {
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.MANAGER || (role == UserRole.PLAYER && father.getActive())) {
 			fatherAsList.add(this.elementConverter.toBoundary(father));
 		}
 		return fatherAsList;
@@ -263,19 +464,8 @@ public class DatabaseElementService implements DBElementService {
 	@MonitorPerformance
 	public List<ElementBoundary> getElementsWithElementName(String userDomain, String userEmail, String name, int size,
 			int page) {
-		List<ElementEntity> entities;
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findAllByNameLike(name,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
-
-		} else if (this.userService.isPlayerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findAllByNameLikeAndActiveTrue(name,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
-		} else {
-			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getElementsWithElementName");
-		}
-		return entities.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
-
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsWithElementName");
+		return toBoundaries(this.elementDao.findAllViewsByNameLike(name, activeOnly, PageRequest.of(page, size)));
 	}
 
 	@Override
@@ -283,17 +473,51 @@ public class DatabaseElementService implements DBElementService {
 	@MonitorPerformance
 	public Collection<ElementBoundary> getElementsWithElementType(String userDomain, String userEmail, String type,
 			int size, int page) {
-		List<ElementEntity> entities;
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findAllByTypeLike(type,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
-		} else if (this.userService.isPlayerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findAllByTypeLikeAndActiveTrue(type,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsWithElementType");
+		return toBoundaries(this.elementDao.findAllViewsByTypeLike(type, activeOnly, PageRequest.of(page, size)));
+	}
+
+	// filters on the generated column of an indexed attribute, compared as text
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public List<ElementBoundary> getElementsWithAttribute(String userDomain, String userEmail, String name,
+			String value, String type, int size, int page) {
+		if (size <= 0 || page < 0) {
+			throw new PaginationException(page, size);
+		}
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsWithAttribute");
+		return this.elementDao
+				.findAllByIndexedAttribute(this.attributeIndexes.columnOf(name), value, type, activeOnly, size, page)
+				.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
+	}
+
+	@Override
+	@MonitorPerformance
+	public void declareIndexedAttribute(String adminDomain, String adminEmail, String name) {
+		if (resolveRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			this.attributeIndexes.declare(name);
 		} else {
-			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getElementsWithElementType");
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "declareIndexedAttribute");
 		}
-		return entities.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public Collection<ElementBoundary> getElementsCreatedBetween(String userDomain, String userEmail, Date from,
+			Date to, int size, int page) {
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsCreatedBetween");
+		if (size <= 0 || page < 0) {
+			throw new PaginationException(page, size);
+		}
+		if (from == null || to == null || !from.before(to)) {
+			throw new InvalidTimeWindowException(from, to);
+		}
+		return this.elementDao
+				.findAllCreatedBetween(from, to, activeOnly, PageRequest.of(page, size, Direction.ASC,
+						"createdTimestamp", "elementId.elementDomain", "elementId.elementId"))
+				.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
 	}
 
 	@Override
@@ -301,19 +525,15 @@ public class DatabaseElementService implements DBElementService {
 	@MonitorPerformance
 	public Collection<ElementBoundary> getElementsNearBy(String userDomain, String userEmail, double lat, double lng,
 			double distance, int size, int page) {
-		List<ElementEntity> entities;
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findByLatBetweenAndLngBetween(lat - distance, lat + distance, lng - distance,
-					lng + distance,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
-		} else if (this.userService.isPlayerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findByLatBetweenAndLngBetweenAndActiveTrue(lat - distance, lat + distance,
-					lng - distance, lng + distance,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
-		} else {
-			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getElementsNearBy");
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsNearBy");
+		if (activeOnly) {
+			List<ElementEntityId> ids = findActiveIdsInGrid(lat, lng, distance, null, size, page);
+			if (ids != null) {
+				return findActiveElementsById(ids);
+			}
 		}
-		return entities.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
+		return toBoundaries(this.elementDao.findAllViewsNearBy(lat - distance, lat + distance, lng - distance,
+				lng + distance, null, activeOnly, PageRequest.of(page, size)));
 	}
 
 	@Override
@@ -321,20 +541,190 @@ public class DatabaseElementService implements DBElementService {
 	@MonitorPerformance
 	public Collection<ElementBoundary> getElementsWithElementTypeNearBy(String userDomain, String userEmail, double lat,
 			double lng, double distance, String type, int size, int page) {
-		List<ElementEntity> entities;
-		if (this.userService.isManagerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findByLatBetweenAndLngBetweenAndTypeLike(lat - distance, lat + distance,
-					lng - distance, lng + distance, type,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsWithElementTypeNearby");
+		if (activeOnly) {
+			List<ElementEntityId> ids = findActiveIdsInGrid(lat, lng, distance, type, size, page);
+			if (ids != null) {
+				return findActiveElementsById(ids);
+			}
+		}
+		return toBoundaries(this.elementDao.findAllViewsNearBy(lat - distance, lat + distance, lng - distance,
+				lng + distance, type, activeOnly, PageRequest.of(page, size)));
+	}
 
-		} else if (this.userService.isPlayerValidation(userDomain, userEmail)) {
-			entities = this.elementDao.findByLatBetweenAndLngBetweenAndTypeLikeAndActiveTrue(lat - distance,
-					lat + distance, lng - distance, lng + distance, type,
-					PageRequest.of(page, size, Direction.ASC, "elementId.elementDomain", "elementId.elementId"));
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ElementBoundary> getAllAfter(String userDomain, String userEmail, String cursor, int size) {
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getAllElements");
+		String[] after = KeysetPage.decode(cursor);
+		return toKeysetPage(this.elementDao.findAllAfter(after[0], after[1], activeOnly, seekPage(size)), size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ElementBoundary> getAllChildrenAfter(String userDomain, String userEmail, String elementDomain,
+			String elementId, String cursor, int size) {
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getAllChildren");
+		String[] after = KeysetPage.decode(cursor);
+		return toKeysetPage(this.elementDao.findAllByFatherAfter(new ElementEntityId(elementDomain, elementId),
+				after[0], after[1], activeOnly, seekPage(size)), size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ElementBoundary> getElementsWithElementNameAfter(String userDomain, String userEmail,
+			String name, String cursor, int size) {
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsWithElementName");
+		String[] after = KeysetPage.decode(cursor);
+		return toKeysetPage(
+				this.elementDao.findAllByNameLikeAfter(name, after[0], after[1], activeOnly, seekPage(size)), size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ElementBoundary> getElementsWithElementTypeAfter(String userDomain, String userEmail,
+			String type, String cursor, int size) {
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsWithElementType");
+		String[] after = KeysetPage.decode(cursor);
+		return toKeysetPage(
+				this.elementDao.findAllByTypeLikeAfter(type, after[0], after[1], activeOnly, seekPage(size)), size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ElementBoundary> getElementsNearByAfter(String userDomain, String userEmail, double lat,
+			double lng, double distance, String cursor, int size) {
+		return getElementsWithElementTypeNearByAfter(userDomain, userEmail, lat, lng, distance, null, cursor, size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<ElementBoundary> getElementsWithElementTypeNearByAfter(String userDomain, String userEmail,
+			double lat, double lng, double distance, String type, String cursor, int size) {
+		boolean activeOnly = isActiveOnly(userDomain, userEmail, "getElementsNearBy");
+		String[] after = KeysetPage.decode(cursor);
+		PageRequest seekPage = seekPage(size);
+		if (activeOnly) {
+			List<ElementEntityId> ids = this.elementGrid.findIds(lat - distance, lat + distance, lng - distance,
+					lng + distance, type);
+			if (ids != null) {
+				ElementEntityId afterId = new ElementEntityId(after[0], after[1]);
+				return KeysetPage.of(
+						ids.stream().filter(id -> id.compareTo(afterId) > 0).limit(size + 1)
+								.collect(Collectors.toList()),
+						size, id -> id, id -> new String[] { id.getDomain(), id.getId() })
+						.mapContent(this::findActiveElementsById);
+			}
+		}
+		List<ElementEntity> rows;
+		if (type == null) {
+			rows = this.elementDao.findAllNearByAfter(lat - distance, lat + distance, lng - distance, lng + distance,
+					after[0], after[1], activeOnly, seekPage);
+		} else {
+			rows = this.elementDao.findAllNearByAndTypeLikeAfter(lat - distance, lat + distance, lng - distance,
+					lng + distance, type, after[0], after[1], activeOnly, seekPage);
+		}
+		return toKeysetPage(rows, size);
+	}
+
+	// players only see active elements, managers see them all
+	private boolean isActiveOnly(String userDomain, String userEmail, String methodName) {
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role == UserRole.MANAGER) {
+			return false;
+		} else if (role == UserRole.PLAYER) {
+			return true;
+		} else {
+			throw new RoleMismatchException(new UserId(userDomain, userEmail), methodName);
+		}
+	}
+
+	// listings are read as views, so no entity is hydrated, tracked or snapshotted
+	private List<ElementBoundary> toBoundaries(List<ElementView> views) {
+		return views.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
+	}
+
+	private PageRequest seekPage(int size) {
+		if (size <= 0) {
+			throw new PaginationException(0, size);
+		}
+		return PageRequest.of(0, size + 1);
+	}
+
+	private KeysetPage<ElementBoundary> toKeysetPage(List<ElementEntity> rows, int size) {
+		return KeysetPage.of(rows, size, this.elementConverter::toBoundary,
+				entity -> new String[] { entity.getElementId().getDomain(), entity.getElementId().getId() });
+	}
+
+	// one page of ids from the in-memory grid, or null when the grid cannot answer
+	private List<ElementEntityId> findActiveIdsInGrid(double lat, double lng, double distance, String type, int size,
+			int page) {
+		if (size <= 0 || page < 0) {
+			return null;
+		}
+		List<ElementEntityId> ids = this.elementGrid.findIds(lat - distance, lat + distance, lng - distance,
+				lng + distance, type);
+		if (ids == null) {
+			return null;
+		}
+		return ids.stream().skip((long) page * size).limit(size).collect(Collectors.toList());
+	}
+
+	// a single primary key lookup, returned in the order of the given ids
+	private List<ElementBoundary> findActiveElementsById(List<ElementEntityId> ids) {
+		Map<ElementEntityId, ElementEntity> entities = StreamSupport
+				.stream(this.elementDao.findAllById(ids).spliterator(), false)
+				.collect(Collectors.toMap(ElementEntity::getElementId, entity -> entity));
+		return ids.stream().map(entities::get).filter(entity -> entity != null && entity.getActive())
+				.map(this.elementConverter::toBoundary).collect(Collectors.toList());
+	}
+
+	/*
+	 * Narrows the candidates to the geohash cells covering the circle using the
+	 * geohash index, then keeps and orders them by their great-circle distance.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public Collection<ElementBoundary> getElementsWithinRadius(String userDomain, String userEmail, double lat,
+			double lng, double distanceMeters, String type, int size, int page) {
+		if (size <= 0 || page < 0) {
+			throw new PaginationException(page, size);
+		}
+		UserRole role = resolveRole(userDomain, userEmail);
+		if (role != UserRole.MANAGER && role != UserRole.PLAYER) {
+			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getElementsWithinRadius");
+		}
+		// no cells cover a radius that large, and without them the search would
+		// read every element
+		Set<String> cells = GeoHash.coveringCells(lat, lng, distanceMeters);
+		if (cells.isEmpty()) {
+			throw new RadiusTooLargeException(distanceMeters);
+		}
+		return this.elementDao
+				.findAllWithinRadius(cells, lat, lng, distanceMeters, type, role == UserRole.PLAYER, size, page)
+				.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
+	}
+
+	@Override
+	@Transactional
+	@MonitorPerformance
+	public void addToBowlCounters(String managerDomain, String managerEmail, String elementDomain, String elementId,
+			int fullFoodBowlDelta, int fullWaterBowlDelta) {
+		if (resolveRole(managerDomain, managerEmail) == UserRole.MANAGER) {
+			if (this.elementDao.addToBowlCounters(elementDomain, elementId, ElementConverter.FEEDING_AREA_TYPE,
+					fullFoodBowlDelta, fullWaterBowlDelta) == 0) {
+				throw new EntityNotFoundException(new ElementEntityId(elementDomain, elementId));
+			}
 		} else {
-			throw new RoleMismatchException(new UserId(userDomain, userEmail), "getElementsWithElementTypeNearby");
+			throw new RoleMismatchException(new UserId(managerDomain, managerEmail), "addToBowlCounters");
 		}
-		return entities.stream().map(this.elementConverter::toBoundary).collect(Collectors.toList());
 	}
 
 }
@@ -2,9 +2,15 @@ package acs.logic.database;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
@@ -13,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import acs.aop.MonitorPerformance;
+import acs.aop.RequestPrincipal;
 import acs.boundaries.UserBoundary;
 import acs.boundaries.details.UserId;
 import acs.dal.UserDao;
@@ -20,8 +27,10 @@ import acs.data.UserEntity;
 import acs.data.UserRole;
 import acs.data.details.UserEntityId;
 import acs.logic.DBUserService;
+import acs.logic.KeysetPage;
 import acs.logic.database.exceptions.EntityDuplicationException;
 import acs.logic.database.exceptions.EntityNotFoundException;
+import acs.logic.database.exceptions.PaginationException;
 import acs.logic.database.exceptions.RoleMismatchException;
 import acs.logic.util.UserConverter;
 
@@ -30,13 +39,20 @@ public class DatabaseUserService implements DBUserService {
 
 	private UserConverter userConverter;
 	private UserDao userDao;
+	private UserRoleCache roleCache;
+	private RequestPrincipal principal;
+	@PersistenceContext
+	private EntityManager entityManager;
 	@Value("${spring.application.name:default}")
 	private String appDomain;
 
 	@Autowired
-	public DatabaseUserService(UserDao userDao, UserConverter userConverter) {
+	public DatabaseUserService(UserDao userDao, UserConverter userConverter, UserRoleCache roleCache,
+			RequestPrincipal principal) {
 		this.userDao = userDao;
 		this.userConverter = userConverter;
+		this.roleCache = roleCache;
+		this.principal = principal;
 	}
 
 	// all UPSET queries
@@ -52,6 +68,7 @@ public class DatabaseUserService implements DBUserService {
 		UserEntity newUserEntity = this.userConverter.toEntity(user);
 
 		this.userDao.save(newUserEntity);
+		this.roleCache.invalidate(key);
 		return this.userConverter.toBoundary(getEntityUserFromDatabase(key));
 	}
 
@@ -78,6 +95,7 @@ public class DatabaseUserService implements DBUserService {
 		userEntityToBeUpdated.setAvatar(userEntityUpdates.getAvatar() == null ? userEntityToBeUpdated.getAvatar()
 				: userEntityUpdates.getAvatar());
 
+		this.roleCache.invalidate(userId);
 		return this.userConverter.toBoundary(this.userDao.save(userEntityToBeUpdated));
 	}
 
@@ -98,7 +116,7 @@ public class DatabaseUserService implements DBUserService {
 	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public List<UserBoundary> getAllUsers(String adminDomain, String adminEmail) {
-		if (isAdminValidation(adminDomain, adminEmail)) {
+		if (getUserRole(adminDomain, adminEmail) == UserRole.ADMIN) {
 			return StreamSupport.stream(this.userDao.findAll().spliterator(), false).map(this.userConverter::toBoundary)
 					.collect(Collectors.toList());
 		} else {
@@ -110,7 +128,7 @@ public class DatabaseUserService implements DBUserService {
 	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public Collection<UserBoundary> getAllUsers(String userDomain, String userEmail, int size, int page) {
-		if (isAdminValidation(userDomain, userEmail)) {
+		if (getUserRole(userDomain, userEmail) == UserRole.ADMIN) {
 			return this.userDao.findAll(PageRequest.of(page, size, Direction.ASC, "id.userDomain", "id.email"))
 					.getContent().stream().map(this.userConverter::toBoundary).collect(Collectors.toList());
 		} else {
@@ -118,41 +136,109 @@ public class DatabaseUserService implements DBUserService {
 		}
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public KeysetPage<UserBoundary> getAllUsersAfter(String adminDomain, String adminEmail, String cursor, int size) {
+		if (getUserRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			if (size <= 0) {
+				throw new PaginationException(0, size);
+			}
+			String[] after = KeysetPage.decode(cursor);
+			return KeysetPage.of(this.userDao.findAllAfter(after[0], after[1], PageRequest.of(0, size + 1)), size,
+					this.userConverter::toBoundary,
+					user -> new String[] { user.getId().getDomain(), user.getId().getEmail() });
+		} else {
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "getAllUsers");
+		}
+	}
+
+	// streamed like DatabaseActionService.exportAllActions
+	@Override
+	@Transactional(readOnly = true)
+	@MonitorPerformance
+	public void exportAllUsers(String adminDomain, String adminEmail, Consumer<UserBoundary> consumer) {
+		if (getUserRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			try (Stream<UserEntity> users = this.userDao.streamAll()) {
+				users.forEach(userEntity -> {
+					consumer.accept(this.userConverter.toBoundary(userEntity));
+					this.entityManager.detach(userEntity);
+				});
+			}
+		} else {
+			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "exportAllUsers");
+		}
+	}
+
 	// all DELETE queries
 	@Override
 	@Transactional
 	@MonitorPerformance
-	public void deleteAllUsers(String adminDomain, String adminEmail) {
-		if (isAdminValidation(adminDomain, adminEmail)) {
-			this.userDao.deleteAll();
+	public long deleteAllUsers(String adminDomain, String adminEmail) {
+		if (getUserRole(adminDomain, adminEmail) == UserRole.ADMIN) {
+			int deleted = this.userDao.deleteAllInBulk();
+			this.roleCache.invalidateAll();
+			return deleted;
 		} else {
 			throw new RoleMismatchException(new UserId(adminDomain, adminEmail), "deleteAllUsers");
 		}
 	}
 
 	// all validate user role functions
+	private UserRole getUserRole(String userDomain, String userEmail) {
+		UserEntityId userId = new UserEntityId(userDomain, userEmail);
+		UserRole role = this.principal.getRoleOf(userId);
+		if (role != null) {
+			return role;
+		}
+		role = this.roleCache.get(userId);
+		if (role == null) {
+			long generation = this.roleCache.generationOf(userId);
+			UserEntity userInSystem = getEntityUserFromDatabase(userId);
+			if (userInSystem != null) {
+				role = userInSystem.getRole();
+				this.roleCache.put(userId, role, generation);
+			}
+		}
+		return role;
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	@MonitorPerformance
+	public Optional<UserEntity> authenticate(String userDomain, String userEmail) {
+		UserEntityId userId = new UserEntityId(userDomain, userEmail);
+		long generation = this.roleCache.generationOf(userId);
+		UserEntity user = getEntityUserFromDatabase(userId);
+		if (user != null) {
+			this.roleCache.put(userId, user.getRole(), generation);
+		}
+		this.principal.setUser(user);
+		return Optional.ofNullable(user);
+	}
+
+	@Override
+	@MonitorPerformance
+	public Optional<UserRole> resolveRole(String userDomain, String userEmail) {
+		return Optional.ofNullable(getUserRole(userDomain, userEmail));
+	}
+
+	@Override
+	@MonitorPerformance
 	public boolean isManagerValidation(String managerDomain, String managerEmail) {
-		UserEntity userInSystem = getEntityUserFromDatabase(new UserEntityId(managerDomain, managerEmail));
-		return (userInSystem != null && userInSystem.getRole().equals(UserRole.MANAGER));
+		return UserRole.MANAGER.equals(getUserRole(managerDomain, managerEmail));
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public boolean isAdminValidation(String adminDomain, String adminEmail) {
-		UserEntity userInSystem = getEntityUserFromDatabase(new UserEntityId(adminDomain, adminEmail));
-		return (userInSystem != null && userInSystem.getRole().equals(UserRole.ADMIN));
+		return UserRole.ADMIN.equals(getUserRole(adminDomain, adminEmail));
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	@MonitorPerformance
 	public boolean isPlayerValidation(String playerDomain, String playerEmail) {
-		UserEntity userInSystem = getEntityUserFromDatabase(new UserEntityId(playerDomain, playerEmail));
-		return (userInSystem != null && userInSystem.getRole().equals(UserRole.PLAYER));
+		return UserRole.PLAYER.equals(getUserRole(playerDomain, playerEmail));
 	}
 
 }
@@ -0,0 +1,117 @@
+package acs.logic.database;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import acs.logic.database.exceptions.AttributeNotIndexedException;
+
+/*
+ * Element attributes live in a JSON column. An indexed attribute gets a virtual
+ * column generated from that JSON, attr_<name>, holding the attribute as text
+ * ("false", "bonzo", "5"), and a secondary index on it; MySQL keeps both up to
+ * date on every write, so no application code has to.
+ *
+ * The attributes in acs.elements.indexed-attributes are declared at startup,
+ * admins can declare more while the application runs. Columns declared earlier
+ * or by another instance are read back from information_schema.
+ */
+@Component
+public class ElementAttributeIndexes {
+	private static final String TABLE = "elements";
+	private static final String JSON_COLUMN = "element_attributes";
+	private static final Pattern NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_]{0,49}");
+	// longer values are cut to fit the index and only match by their prefix
+	private static final int MAX_VALUE_LENGTH = 255;
+
+	private JdbcTemplate jdbcTemplate;
+	private List<String> configuredNames;
+	private Map<String, String> columnsByName;
+	private Log logger;
+
+	@Autowired
+	public ElementAttributeIndexes(JdbcTemplate jdbcTemplate,
+			@Value("${acs.elements.indexed-attributes:state,animal,brand,waterQuality}") List<String> configuredNames) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.configuredNames = configuredNames;
+		this.columnsByName = new ConcurrentHashMap<>();
+		this.logger = LogFactory.getLog(ElementAttributeIndexes.class);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void init() {
+		try {
+			convertToJson(TABLE, JSON_COLUMN);
+			convertToJson("actions", "action_attributes");
+			this.jdbcTemplate
+					.queryForList("SELECT column_name FROM information_schema.columns WHERE table_schema = DATABASE() "
+							+ "AND table_name = ? AND column_name LIKE 'attr\\_%'", String.class, TABLE)
+					.forEach(column -> this.columnsByName.put(column.substring("attr_".length()), column));
+			this.configuredNames.stream().map(String::trim).filter(name -> !name.isEmpty()).forEach(this::declare);
+		} catch (DataAccessException | AttributeNotIndexedException e) {
+			this.logger.warn("Could not index the element attributes: " + e.getMessage());
+		}
+	}
+
+	public synchronized void declare(String name) {
+		if (!NAME.matcher(name).matches()) {
+			throw new AttributeNotIndexedException(name, "cannot be indexed, names are letters, digits and '_'");
+		}
+		if (this.columnsByName.containsKey(name)) {
+			return;
+		}
+		String column = "attr_" + name;
+		if (!columnExists(column)) {
+			this.logger.info("indexing element attribute " + name + " as " + column);
+			this.jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD COLUMN " + column + " VARCHAR("
+					+ MAX_VALUE_LENGTH + ") GENERATED ALWAYS AS (LEFT(JSON_UNQUOTE(JSON_EXTRACT(" + JSON_COLUMN
+					+ ", '$." + name + "')), " + MAX_VALUE_LENGTH + ")) VIRTUAL, ADD INDEX " + TABLE + "_" + column
+					+ "_idx (" + column + ")");
+		}
+		this.columnsByName.put(name, column);
+	}
+
+	// the generated column of an indexed attribute
+	public String columnOf(String name) {
+		String column = this.columnsByName.get(name);
+		if (column == null) {
+			// another instance may have declared it since
+			column = "attr_" + name;
+			if (!NAME.matcher(name).matches() || !columnExists(column)) {
+				throw new AttributeNotIndexedException(name, "is not indexed");
+			}
+			this.columnsByName.put(name, column);
+		}
+		return column;
+	}
+
+	// attributes stored as LONGTEXT before the column became JSON; MySQL checks
+	// every value while converting
+	private void convertToJson(String table, String column) {
+		List<String> types = this.jdbcTemplate.queryForList(
+				"SELECT data_type FROM information_schema.columns WHERE table_schema = DATABASE() "
+						+ "AND table_name = ? AND column_name = ?",
+				String.class, table, column);
+		if (!types.isEmpty() && !"json".equalsIgnoreCase(types.get(0))) {
+			this.logger.info("converting " + table + "." + column + " to JSON");
+			this.jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY COLUMN " + column + " JSON");
+		}
+	}
+
+	private boolean columnExists(String column) {
+		return !this.jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns "
+				+ "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?", String.class, TABLE, column)
+				.isEmpty();
+	}
+}
@@ -0,0 +1,72 @@
+package acs.logic.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import acs.data.GeoHash;
+
+/*
+ * Fills geohash for elements stored before the column existed, which the
+ * radius search would otherwise never find. The hash is computed by GeoHash,
+ * as for new elements, so rows are read and written back batch by batch in
+ * primary key order.
+ */
+@Component
+public class GeohashBackfill {
+	private JdbcTemplate jdbcTemplate;
+	private int batchSize;
+	private Log logger;
+
+	@Autowired
+	public GeohashBackfill(JdbcTemplate jdbcTemplate, @Value("${acs.migration.batch-size:1000}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.batchSize = batchSize;
+		this.logger = LogFactory.getLog(GeohashBackfill.class);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		try {
+			String lastDomain = "";
+			String lastId = "";
+			long filled = 0;
+			List<Object[]> rows;
+			do {
+				rows = this.jdbcTemplate.query(
+						"SELECT element_domain, element_id, lat, lng FROM elements WHERE geohash IS NULL "
+								+ "AND lat IS NOT NULL AND lng IS NOT NULL AND (element_domain > ? "
+								+ "OR (element_domain = ? AND element_id > ?)) ORDER BY element_domain, element_id "
+								+ "LIMIT ?",
+						(resultSet, rowNum) -> new Object[] { resultSet.getString(1), resultSet.getString(2),
+								resultSet.getDouble(3), resultSet.getDouble(4) },
+						lastDomain, lastDomain, lastId, this.batchSize);
+				List<Object[]> updates = new ArrayList<>();
+				for (Object[] row : rows) {
+					updates.add(new Object[] { GeoHash.encode((Double) row[2], (Double) row[3]), row[0], row[1] });
+				}
+				this.jdbcTemplate.batchUpdate(
+						"UPDATE elements SET geohash = ? WHERE element_domain = ? AND element_id = ?", updates);
+				filled += updates.size();
+				if (!rows.isEmpty()) {
+					lastDomain = (String) rows.get(rows.size() - 1)[0];
+					lastId = (String) rows.get(rows.size() - 1)[1];
+				}
+			} while (rows.size() == this.batchSize);
+			if (filled > 0) {
+				this.logger.info("filled the geohash of " + filled + " elements");
+			}
+		} catch (DataAccessException e) {
+			this.logger.warn("Could not fill the geohash of elements: " + e.getMessage());
+		}
+	}
+}
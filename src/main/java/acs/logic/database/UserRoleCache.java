@@ -0,0 +1,167 @@
+package acs.logic.database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import acs.data.UserRole;
+import acs.data.details.UserEntityId;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Roles looked up by id, for a TTL. A role read from the database is only
+ * cached if no invalidation of its key happened since the read started: the
+ * reader takes the key's generation first and put drops the role when the
+ * generation moved. Generations are kept per stripe of keys, so memory stays
+ * bounded; a key sharing a stripe with an invalidated one at worst misses once.
+ *
+ * Hits, misses and size are published as cache.gets and cache.size, tagged
+ * cache=user-role.
+ */
+@Component
+public class UserRoleCache {
+	private static final int GENERATION_STRIPES = 1024;
+
+	private final int maxSize;
+	private final long ttlMillis;
+	private final Map<UserEntityId, CachedRole> roles;
+	private final long[] generations;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+
+	@Autowired
+	public UserRoleCache(@Value("${acs.cache.user-role.max-size:10000}") int maxSize,
+			@Value("${acs.cache.user-role.ttl-ms:60000}") long ttlMillis, MeterRegistry meterRegistry) {
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.generations = new long[GENERATION_STRIPES];
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		// access ordered, so the least recently used role is evicted first
+		this.roles = new LinkedHashMap<UserEntityId, CachedRole>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UserEntityId, CachedRole> eldest) {
+				return size() > UserRoleCache.this.maxSize;
+			}
+		};
+		FunctionCounter.builder("cache.gets", this.hits, AtomicLong::get).tag("cache", "user-role")
+				.tag("result", "hit").register(meterRegistry);
+		FunctionCounter.builder("cache.gets", this.misses, AtomicLong::get).tag("cache", "user-role")
+				.tag("result", "miss").register(meterRegistry);
+		Gauge.builder("cache.size", this, UserRoleCache::size).tag("cache", "user-role").register(meterRegistry);
+	}
+
+	// returns null when the role is not cached or has expired
+	public UserRole get(UserEntityId userId) {
+		CachedRole cached;
+		synchronized (this.roles) {
+			cached = this.roles.get(userId);
+			if (cached != null && cached.expiresAt < System.currentTimeMillis()) {
+				this.roles.remove(userId);
+				cached = null;
+			}
+		}
+		if (cached == null) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+		this.hits.incrementAndGet();
+		return cached.role;
+	}
+
+	// taken before reading the role from the database, and handed to put
+	public long generationOf(UserEntityId userId) {
+		synchronized (this.roles) {
+			return this.generations[stripeOf(userId)];
+		}
+	}
+
+	public void put(UserEntityId userId, UserRole role, long generation) {
+		if (this.maxSize <= 0 || role == null) {
+			return;
+		}
+		synchronized (this.roles) {
+			// invalidated since the role was read, it may be the replaced one
+			if (this.generations[stripeOf(userId)] != generation) {
+				return;
+			}
+			this.roles.put(userId, new CachedRole(role, System.currentTimeMillis() + this.ttlMillis));
+		}
+	}
+
+	// evicts now and, inside a transaction, once more after commit; each eviction
+	// moves the key's generation, so a lookup that read the role before the
+	// commit cannot cache it afterwards
+	public void invalidate(UserEntityId userId) {
+		Runnable evict = () -> {
+			synchronized (this.roles) {
+				this.generations[stripeOf(userId)]++;
+				this.roles.remove(userId);
+			}
+		};
+		evict.run();
+		afterCommit(evict);
+	}
+
+	public void invalidateAll() {
+		Runnable evict = () -> {
+			synchronized (this.roles) {
+				for (int i = 0; i < this.generations.length; i++) {
+					this.generations[i]++;
+				}
+				this.roles.clear();
+			}
+		};
+		evict.run();
+		afterCommit(evict);
+	}
+
+	private void afterCommit(Runnable evict) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					evict.run();
+				}
+			});
+		}
+	}
+
+	public long getHitCount() {
+		return this.hits.get();
+	}
+
+	public long getMissCount() {
+		return this.misses.get();
+	}
+
+	public int size() {
+		synchronized (this.roles) {
+			return this.roles.size();
+		}
+	}
+
+	private static int stripeOf(UserEntityId userId) {
+		return (userId.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+	}
+
+	private static class CachedRole {
+		private final UserRole role;
+		private final long expiresAt;
+
+		private CachedRole(UserRole role, long expiresAt) {
+			this.role = role;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package acs.logic.database.exceptions;
+
+import acs.data.details.ActionEntityId;
+
+// another instance claimed the entry after this one's lease ran out
+public class ActionLeaseLostException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ActionLeaseLostException(ActionEntityId actionId) {
+		super(String.format("The lease on action %s ran out before it was done.", actionId));
+	}
+}
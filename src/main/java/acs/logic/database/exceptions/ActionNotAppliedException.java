@@ -0,0 +1,14 @@
+package acs.logic.database.exceptions;
+
+import acs.data.details.ActionEntityId;
+
+// the handler found nothing to do: an inactive target, or attributes that do not
+// describe what the action creates; the same action would fail again
+public class ActionNotAppliedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ActionNotAppliedException(ActionEntityId actionId) {
+		super(String.format("Action %s could not be applied to its target.", actionId));
+	}
+}
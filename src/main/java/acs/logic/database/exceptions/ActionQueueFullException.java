@@ -0,0 +1,15 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+public class ActionQueueFullException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ActionQueueFullException(long queueDepth, int maxQueueDepth) {
+		super(String.format("Action queue is full (%d of %d pending actions), try again later.", queueDepth,
+				maxQueueDepth));
+	}
+}
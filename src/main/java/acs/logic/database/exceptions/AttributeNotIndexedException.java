@@ -0,0 +1,14 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class AttributeNotIndexedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public AttributeNotIndexedException(String name, String reason) {
+		super(String.format("Element attribute '%s' %s.", name, reason));
+	}
+}
@@ -0,0 +1,14 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.PAYLOAD_TOO_LARGE)
+public class BatchTooLargeException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public BatchTooLargeException(int size, int maxSize) {
+		super(String.format("Batch of %d items exceeds the maximum of %d.", size, maxSize));
+	}
+}
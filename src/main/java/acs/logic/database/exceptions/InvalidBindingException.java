@@ -0,0 +1,16 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import acs.data.details.ElementEntityId;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class InvalidBindingException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidBindingException(ElementEntityId fatherId, ElementEntityId childId, String reason) {
+		super(String.format("Cannot bind %s as a child of %s: %s.", childId, fatherId, reason));
+	}
+}
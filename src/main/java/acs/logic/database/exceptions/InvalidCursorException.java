@@ -0,0 +1,14 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidCursorException(String cursor) {
+		super(String.format("%s is not a valid page cursor.", cursor));
+	}
+}
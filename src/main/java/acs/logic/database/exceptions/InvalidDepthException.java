@@ -0,0 +1,14 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class InvalidDepthException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidDepthException(int depth, int maxDepth) {
+		super(String.format("Depth %d is not between 1 and %d.", depth, maxDepth));
+	}
+}
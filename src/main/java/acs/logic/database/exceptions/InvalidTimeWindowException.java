@@ -0,0 +1,16 @@
+package acs.logic.database.exceptions;
+
+import java.util.Date;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class InvalidTimeWindowException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidTimeWindowException(Date from, Date to) {
+		super(String.format("[%s, %s) is not a valid time window.", from, to));
+	}
+}
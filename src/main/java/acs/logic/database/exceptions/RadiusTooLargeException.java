@@ -0,0 +1,14 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class RadiusTooLargeException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RadiusTooLargeException(double distanceMeters) {
+		super(String.format("A radius of %.0fm is too large to search around this point.", distanceMeters));
+	}
+}
@@ -0,0 +1,16 @@
+package acs.logic.database.exceptions;
+
+import java.util.Collection;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class UnknownFieldException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public UnknownFieldException(String field, Collection<String> fields) {
+		super(String.format("'%s' is not one of the fields %s.", field, fields));
+	}
+}
@@ -0,0 +1,14 @@
+package acs.logic.database.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class UnknownSearchModeException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public UnknownSearchModeException(String mode, String... modes) {
+		super(String.format("'%s' is not one of the search modes %s.", mode, String.join(", ", modes)));
+	}
+}
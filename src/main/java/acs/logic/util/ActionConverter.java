@@ -1,7 +1,5 @@
 package acs.logic.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,18 +23,11 @@ public class ActionConverter implements ActionConverterInterface {
 	@Override
 	public ActionBoundary toBoundary(ActionEntity actionEntity) {
 		validateActionEntity(actionEntity);
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DatePattern.pattern);
-		Date date = null;
-		try {
-			date = simpleDateFormat.parse(actionEntity.getCreatedTimestamp());
-		} catch (ParseException e) {
-			e.printStackTrace();
-		}
 		return new ActionBoundary(
 				new ActionId(actionEntity.getActionId().getDomain(), actionEntity.getActionId().getId()),
 				actionEntity.getType(),
 				new Element(new ElementId(actionEntity.getElement().getDomain(), actionEntity.getElement().getId())),
-				date,
+				actionEntity.getCreatedTimestamp(),
 				new InvokedBy(
 						new UserId(actionEntity.getInvokedBy().getDomain(), actionEntity.getInvokedBy().getEmail())),
 				new HashMap<String, Object>(actionEntity.getActionAttributes()));
@@ -45,13 +36,12 @@ public class ActionConverter implements ActionConverterInterface {
 	@Override
 	public ActionEntity toEntity(ActionBoundary actionBoundary) {
 		validateActionBoundary(actionBoundary);
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DatePattern.pattern);
 		return new ActionEntity(
 				new ActionEntityId(actionBoundary.getActionId().getDomain(), actionBoundary.getActionId().getId()),
 				actionBoundary.getType(),
 				new ElementEntityId(actionBoundary.getElement().getElementId().getDomain(),
 						actionBoundary.getElement().getElementId().getId()),
-				simpleDateFormat.format(actionBoundary.getCreatedTimestamp()),
+				DatePattern.toStoredTimestamp(actionBoundary.getCreatedTimestamp()),
 				new UserEntityId(actionBoundary.getInvokedBy().getUserId().getDomain(),
 						actionBoundary.getInvokedBy().getUserId().getEmail()),
 				actionBoundary.getActionAttributes());
@@ -116,8 +106,8 @@ public class ActionConverter implements ActionConverterInterface {
 					baseErrMsg, actionEntity.getActionAttributes(), actionEntity.toString()));
 	}
 
-	private boolean validateDate(String createdTimestamp) {
-		return DatePattern.isDate(createdTimestamp);
+	private boolean validateDate(Date createdTimestamp) {
+		return validateNotNull(createdTimestamp);
 	}
 
 	private boolean validateActionId(ActionEntityId actionId) {
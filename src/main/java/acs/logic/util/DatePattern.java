@@ -1,31 +1,139 @@
 package acs.logic.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
 
 public class DatePattern {
 	final static String pattern = "EEE MMM d HH:mm:ss zzz yyyy";
 	final static String UTC_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
 	final static String dateOnly = "yyyy-MM-dd";
 
-	public static boolean isDate(String dateStr) {
-		SimpleDateFormat sdf = new SimpleDateFormat(UTC_PATTERN);
+	// DateTimeFormatter is immutable, so one instance is shared by every thread
+	private static final DateTimeFormatter STORAGE_FORMAT = DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH)
+			.withZone(ZoneId.systemDefault());
+	private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern(UTC_PATTERN, Locale.ENGLISH);
+	private static final DateTimeFormatter DATE_ONLY_FORMAT = DateTimeFormatter.ofPattern(dateOnly, Locale.ENGLISH);
+
+	private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+	private static final String STANDARD_ZONE_NAME;
+	private static final Map<String, ZoneId> ZONES;
+
+	static {
+		TimeZone systemZone = TimeZone.getDefault();
+		STANDARD_ZONE_NAME = systemZone.getDisplayName(false, TimeZone.SHORT, Locale.ENGLISH);
+		Map<String, ZoneId> zones = new HashMap<>();
+		zones.put("UTC", ZoneOffset.UTC);
+		zones.put("GMT", ZoneOffset.UTC);
+		zones.put(STANDARD_ZONE_NAME, ZoneId.systemDefault());
+		zones.put(systemZone.getDisplayName(true, TimeZone.SHORT, Locale.ENGLISH), ZoneId.systemDefault());
+		ZONES = zones;
+	}
+
+	// timestamp columns are DATETIME under MySQL55Dialect, which keeps whole
+	// seconds, so the stored value is truncated up front to match what reads return
+	public static Date toStoredTimestamp(Date date) {
+		return Date.from(date.toInstant().truncatedTo(ChronoUnit.SECONDS));
+	}
+
+	public static String format(Date date) {
+		return STORAGE_FORMAT.format(date.toInstant());
+	}
+
+	// returns null when the text is not in the storage format
+	public static Date parse(String text) {
+		if (text == null) {
+			return null;
+		}
+		Date date = parseCanonical(text);
+		if (date != null) {
+			return date;
+		}
 		try {
-			sdf.parse(dateStr);
-		} catch (ParseException e) {
-			try {
-				sdf.applyPattern(pattern);
-				sdf.parse(dateStr);
-			} catch (ParseException e1) {
-				try {
-					sdf.applyPattern(dateOnly);
-					sdf.parse(dateStr);
-				} catch (ParseException e2) {
-					return false;
-				}
+			return Date.from(ZonedDateTime.parse(text, STORAGE_FORMAT).toInstant());
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	/*
+	 * Reads the storage format by position, e.g. "Sat Oct 17 09:05:00 UTC 2026".
+	 * Only the zones the server writes are known here; anything else returns null
+	 * and is left to the full formatter.
+	 */
+	private static Date parseCanonical(String text) {
+		int length = text.length();
+		if (length < 24 || text.charAt(3) != ' ' || text.charAt(7) != ' ') {
+			return null;
+		}
+		int month = MONTHS.indexOf(text.substring(4, 7));
+		if (month < 0 || month % 3 != 0) {
+			return null;
+		}
+		int position = text.charAt(9) == ' ' ? 9 : 10;
+		int day = number(text, 8, position);
+		if (text.charAt(position) != ' ' || text.charAt(position + 3) != ':' || text.charAt(position + 6) != ':'
+				|| text.charAt(position + 9) != ' ') {
+			return null;
+		}
+		int hour = number(text, position + 1, position + 3);
+		int minute = number(text, position + 4, position + 6);
+		int second = number(text, position + 7, position + 9);
+		int zoneEnd = length - 5;
+		if (text.charAt(zoneEnd) != ' ' || zoneEnd <= position + 10) {
+			return null;
+		}
+		String zoneName = text.substring(position + 10, zoneEnd);
+		ZoneId zone = ZONES.get(zoneName);
+		int year = number(text, zoneEnd + 1, length);
+		if (zone == null || day < 0 || hour < 0 || minute < 0 || second < 0 || year < 0) {
+			return null;
+		}
+		try {
+			ZonedDateTime dateTime = ZonedDateTime
+					.of(LocalDateTime.of(year, month / 3 + 1, day, hour, minute, second), zone);
+			// the zone name tells which side of a daylight saving overlap was meant
+			if (zoneName.equals(STANDARD_ZONE_NAME)) {
+				dateTime = dateTime.withLaterOffsetAtOverlap();
+			}
+			return Date.from(dateTime.toInstant());
+		} catch (DateTimeException e) {
+			return null;
+		}
+	}
+
+	// returns -1 unless every character in the range is a digit
+	private static int number(String text, int from, int to) {
+		int value = 0;
+		for (int i = from; i < to; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
 			}
+			value = value * 10 + (c - '0');
 		}
-		return true;
+		return value;
+	}
+
+	public static boolean isDate(String dateStr) {
+		return matches(UTC_FORMAT, dateStr) || matches(STORAGE_FORMAT, dateStr) || matches(DATE_ONLY_FORMAT, dateStr);
+	}
+
+	// like SimpleDateFormat.parse, a matching prefix is enough
+	private static boolean matches(DateTimeFormatter formatter, String dateStr) {
+		ParsePosition position = new ParsePosition(0);
+		return formatter.parseUnresolved(dateStr, position) != null && position.getErrorIndex() < 0;
 	}
 
 }
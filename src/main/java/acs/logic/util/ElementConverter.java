@@ -1,7 +1,5 @@
 package acs.logic.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
 import java.util.TreeMap;
@@ -14,43 +12,115 @@ import acs.boundaries.details.ElementId;
 import acs.boundaries.details.Location;
 import acs.boundaries.details.UserId;
 import acs.data.ElementEntity;
+import acs.data.ElementView;
+import acs.data.MapToJsonConverter;
 import acs.data.details.ElementEntityId;
 import acs.data.details.UserEntityId;
 
 @Component
 public class ElementConverter implements ElementConverterInterface {
+	public static final String FEEDING_AREA_TYPE = "feeding_area";
+	public static final String FULL_FOOD_BOWL = "fullFoodBowl";
+	public static final String FULL_WATER_BOWL = "fullWaterBowl";
+	private static final MapToJsonConverter ATTRIBUTES_JSON = new MapToJsonConverter();
 
 	@Override
 	public ElementBoundary toBoundary(ElementEntity elementEntity) {
 		validateElementEntity(elementEntity);
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DatePattern.pattern);
-		Date date = null;
-		try {
-			date = simpleDateFormat.parse(elementEntity.getCreatedTimestamp());
-		} catch (ParseException e) {
-			e.printStackTrace();
-		}
+		Map<String, Object> attributes = lazyAttributes(elementEntity.getElementAttributesJson(),
+				elementEntity.getFullFoodBowl(), elementEntity.getFullWaterBowl());
 		return new ElementBoundary(
 				new ElementId(elementEntity.getElementId().getDomain(), elementEntity.getElementId().getId()),
-				elementEntity.getType(), elementEntity.getName(), elementEntity.getActive(), date,
+				elementEntity.getType(), elementEntity.getName(), elementEntity.getActive(),
+				elementEntity.getCreatedTimestamp(),
 				new CreatedBy(
 						new UserId(elementEntity.getCreatedBy().getDomain(), elementEntity.getCreatedBy().getEmail())),
-				new Location(elementEntity.getLat(), elementEntity.getLng()),
-				new TreeMap<String, Object>(elementEntity.getElementAttributes()));
+				new Location(elementEntity.getLat(), elementEntity.getLng()), attributes);
+	}
+
+	// the same boundary as from the entity, for listings read as ElementView
+	public ElementBoundary toBoundary(ElementView elementView) {
+		return new ElementBoundary(new ElementId(elementView.getElementDomain(), elementView.getElementId()),
+				elementView.getType(), elementView.getName(), elementView.getActive(),
+				elementView.getCreatedTimestamp(),
+				new CreatedBy(new UserId(elementView.getCreatedByDomain(), elementView.getCreatedByEmail())),
+				new Location(elementView.getLat(), elementView.getLng()),
+				lazyAttributes(elementView.getElementAttributesJson(), elementView.getFullFoodBowl(),
+						elementView.getFullWaterBowl()));
+	}
+
+	// parsed when the attributes are first read, if ever
+	private Map<String, Object> lazyAttributes(String json, Integer fullFoodBowl, Integer fullWaterBowl) {
+		return new LazyMap<>(() -> {
+			Map<String, Object> attributes = new TreeMap<String, Object>(ATTRIBUTES_JSON.convertToEntityAttribute(json));
+			// bowl counters are kept in their own columns
+			if (fullFoodBowl != null) {
+				attributes.put(FULL_FOOD_BOWL, fullFoodBowl);
+			}
+			if (fullWaterBowl != null) {
+				attributes.put(FULL_WATER_BOWL, fullWaterBowl);
+			}
+			return attributes;
+		});
 	}
 
 	@Override
 	public ElementEntity toEntity(ElementBoundary elementBoundary) {
 		validateElementBoundary(elementBoundary);
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DatePattern.pattern);
-		return new ElementEntity(
+		ElementEntity elementEntity = new ElementEntity(
 				new ElementEntityId(elementBoundary.getElementId().getDomain(), elementBoundary.getElementId().getId()),
 				elementBoundary.getType(), elementBoundary.getName(), elementBoundary.getActive(),
-				simpleDateFormat.format(elementBoundary.getCreatedTimestamp()),
+				DatePattern.toStoredTimestamp(elementBoundary.getCreatedTimestamp()),
 				new UserEntityId(elementBoundary.getCreatedBy().getUserId().getDomain(),
 						elementBoundary.getCreatedBy().getUserId().getEmail()),
-				elementBoundary.getLocation().getLat(), elementBoundary.getLocation().getLng(),
-				new TreeMap<String, Object>(elementBoundary.getElementAttributes()));
+				elementBoundary.getLocation().getLat(), elementBoundary.getLocation().getLng(), null);
+		applyAttributes(elementEntity, elementBoundary.getElementAttributes());
+		return elementEntity;
+	}
+
+	/*
+	 * Stores the given attributes on the entity. The bowl counters of a feeding
+	 * area are moved out of the attributes map into their own numeric columns, so
+	 * they can be updated atomically.
+	 */
+	public void applyAttributes(ElementEntity elementEntity, Map<String, Object> attributes) {
+		Map<String, Object> storedAttributes = new TreeMap<String, Object>(attributes);
+		elementEntity.setFullFoodBowl(null);
+		elementEntity.setFullWaterBowl(null);
+		if (FEEDING_AREA_TYPE.equals(elementEntity.getType())) {
+			elementEntity.setFullFoodBowl(extractCounter(storedAttributes, FULL_FOOD_BOWL));
+			elementEntity.setFullWaterBowl(extractCounter(storedAttributes, FULL_WATER_BOWL));
+		}
+		elementEntity.setElementAttributes(storedAttributes);
+	}
+
+	/*
+	 * The counters in the attributes of a PATCH, for a feeding area: integer
+	 * values are moved out of the attributes, anything else clears the counter and
+	 * stays an attribute, as in applyAttributes.
+	 */
+	public Map<String, Integer> extractCounters(Map<String, Object> attributes) {
+		Map<String, Integer> counters = new TreeMap<String, Integer>();
+		for (String name : new String[] { FULL_FOOD_BOWL, FULL_WATER_BOWL }) {
+			if (attributes.containsKey(name)) {
+				counters.put(name, extractCounter(attributes, name));
+			}
+		}
+		return counters;
+	}
+
+	private Integer extractCounter(Map<String, Object> attributes, String name) {
+		Object value = attributes.get(name);
+		if (value == null) {
+			return null;
+		}
+		try {
+			Integer counter = Integer.parseInt(value.toString());
+			attributes.remove(name);
+			return counter;
+		} catch (NumberFormatException e) {
+			return null;
+		}
 	}
 
 	public ElementEntityId toEntityId(ElementId elementChildrenId) {
@@ -130,9 +200,10 @@ public class ElementConverter implements ElementConverterInterface {
 		if (!validateEntityId(elementEntity.getElementId()))
 			throw new RuntimeException(String.format("%s %s is an invalid ElementId for the ElementEntity object: %s.",
 					baseErrMsg, elementEntity.getElementId(), elementEntity.toString()));
-		if (!validateAttributes(elementEntity.getElementAttributes()))
+		// checked on the raw JSON, so validation does not parse the attributes
+		if (!validateNotNull(elementEntity.getElementAttributesJson()))
 			throw new RuntimeException(String.format("%s %s are invalid attributes for the ElementEntity object: %s.",
-					baseErrMsg, elementEntity.getElementAttributes(), elementEntity.toString()));
+					baseErrMsg, elementEntity.getElementAttributesJson(), elementEntity.toString()));
 	}
 
 	private boolean validateCreatedBy(UserEntityId createdBy) {
@@ -141,8 +212,8 @@ public class ElementConverter implements ElementConverterInterface {
 		return false;
 	}
 
-	private boolean validateDate(String createdTimestamp) {
-		return DatePattern.isDate(createdTimestamp);
+	private boolean validateDate(Date createdTimestamp) {
+		return validateNotNull(createdTimestamp);
 	}
 
 	private boolean validateActive(Boolean active) {
@@ -0,0 +1,58 @@
+package acs.logic.util;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/*
+ * A map that is only built when it is first read. Boundaries of element
+ * listings carry their attributes this way, so a response that leaves the
+ * attributes out never parses them.
+ */
+public class LazyMap<K, V> extends AbstractMap<K, V> {
+	private Supplier<Map<K, V>> loader;
+	private Map<K, V> map;
+
+	public LazyMap(Supplier<Map<K, V>> loader) {
+		this.loader = loader;
+	}
+
+	private Map<K, V> map() {
+		if (this.map == null) {
+			this.map = this.loader.get();
+			this.loader = null;
+		}
+		return this.map;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return map().entrySet();
+	}
+
+	@Override
+	public int size() {
+		return map().size();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map().containsKey(key);
+	}
+
+	@Override
+	public V get(Object key) {
+		return map().get(key);
+	}
+
+	@Override
+	public V put(K key, V value) {
+		return map().put(key, value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		return map().remove(key);
+	}
+}
@@ -1,27 +1,61 @@
 package acs.rest;
 
+import java.util.Arrays;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import acs.aop.ValidateRole;
 import acs.boundaries.ActionBoundary;
-import acs.logic.ActionService;
+import acs.boundaries.ActionResultBoundary;
+import acs.boundaries.ActionStatusBoundary;
+import acs.data.UserRole;
+import acs.logic.DBActionService;
 
 @RestController
 @RequestMapping("/acs/actions")
 public class ActionController {
-	private ActionService actionService;
+	private DBActionService actionService;
 
 	@Autowired
-	public ActionController(ActionService actionService) {
+	public ActionController(DBActionService actionService) {
 		this.actionService = actionService;
 	}
 
 	@RequestMapping(path = "", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-	public Object invokeAnAction(@RequestBody ActionBoundary actionBoundary) {
-		return actionService.invokeAction(actionBoundary);
+	@ValidateRole(UserRole.PLAYER)
+	public ResponseEntity<Object> invokeAnAction(@RequestBody ActionBoundary actionBoundary,
+			@RequestParam(name = "async", required = false, defaultValue = "false") boolean async) {
+		if (async) {
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(actionService.enqueueAction(actionBoundary));
+		}
+		return ResponseEntity.ok(actionService.invokeAction(actionBoundary));
+	}
+
+	/*
+	 * Invokers are validated per item by the service, a batch may hold actions of
+	 * several players. Items rejected by validation, or that their handler cannot
+	 * apply, come back FAILED in their own result. An error while applying an
+	 * item (e.g. a managerEmail that is not a manager) fails the whole request
+	 * with that error's status, and no item of the batch is applied.
+	 */
+	@RequestMapping(path = "/batch", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ActionResultBoundary[] invokeActions(@RequestBody ActionBoundary[] actionBoundaries) {
+		return actionService.invokeActions(Arrays.asList(actionBoundaries)).toArray(new ActionResultBoundary[0]);
+	}
+
+	@RequestMapping(path = "/{userDomain}/{userEmail}/{actionDomain}/{actionId}/status", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.PLAYER, UserRole.ADMIN })
+	public ActionStatusBoundary getActionStatus(@PathVariable String userDomain, @PathVariable String userEmail,
+			@PathVariable String actionDomain, @PathVariable String actionId) {
+		return actionService.getActionStatus(userDomain, userEmail, actionDomain, actionId);
 	}
 }
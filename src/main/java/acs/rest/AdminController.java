@@ -1,15 +1,33 @@
 package acs.rest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Date;
+
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import acs.aop.ValidateRole;
 import acs.boundaries.ActionBoundary;
+import acs.boundaries.ActionQueueBoundary;
+import acs.boundaries.DeleteResultBoundary;
 import acs.boundaries.UserBoundary;
+import acs.data.UserRole;
 import acs.logic.DBActionService;
 import acs.logic.DBElementService;
 import acs.logic.DBUserService;
@@ -17,44 +35,162 @@ import acs.logic.DBUserService;
 @RestController
 @RequestMapping("/acs/admin")
 public class AdminController {
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+	public static final String NDJSON_FORMAT = "format=ndjson";
+
 	private DBActionService actionService;
 	private DBElementService elementService;
 	private DBUserService userService;
+	private ObjectWriter userWriter;
+	private ObjectWriter actionWriter;
 
 	@Autowired
-	public AdminController(DBActionService actionService, DBElementService elementService, DBUserService userService) {
+	public AdminController(DBActionService actionService, DBElementService elementService, DBUserService userService,
+			ObjectMapper objectMapper) {
 		this.actionService = actionService;
 		this.elementService = elementService;
 		this.userService = userService;
+		this.userWriter = objectMapper.writerFor(UserBoundary.class);
+		this.actionWriter = objectMapper.writerFor(ActionBoundary.class);
 	}
 
 	@RequestMapping(path = "/users/{adminDomain}/{adminEmail}", method = RequestMethod.DELETE)
-	public void deleteAllUsers(@PathVariable String adminDomain, @PathVariable String adminEmail) {
-		this.userService.deleteAllUsers(adminDomain, adminEmail);
+	@ValidateRole(UserRole.ADMIN)
+	public DeleteResultBoundary deleteAllUsers(@PathVariable String adminDomain, @PathVariable String adminEmail) {
+		return new DeleteResultBoundary(this.userService.deleteAllUsers(adminDomain, adminEmail));
 	}
 
 	@RequestMapping(path = "/elements/{adminDomain}/{adminEmail}", method = RequestMethod.DELETE)
-	public void deleteAllElements(@PathVariable String adminDomain, @PathVariable String adminEmail) {
-		this.elementService.deleteAllElements(adminDomain, adminEmail);
+	@ValidateRole(UserRole.ADMIN)
+	public DeleteResultBoundary deleteAllElements(@PathVariable String adminDomain, @PathVariable String adminEmail) {
+		return new DeleteResultBoundary(this.elementService.deleteAllElements(adminDomain, adminEmail));
+	}
+
+	// adds a generated, indexed column for an element attribute
+	@RequestMapping(path = "/elements/{adminDomain}/{adminEmail}/indexedAttributes/{name}", method = RequestMethod.PUT)
+	@ValidateRole(UserRole.ADMIN)
+	public void declareIndexedAttribute(@PathVariable String adminDomain, @PathVariable String adminEmail,
+			@PathVariable String name) {
+		this.elementService.declareIndexedAttribute(adminDomain, adminEmail, name);
 	}
 
 	@RequestMapping(path = "/actions/{adminDomain}/{adminEmail}", method = RequestMethod.DELETE)
-	public void deleteAllActions(@PathVariable String adminDomain, @PathVariable String adminEmail) {
-		this.actionService.deleteAllActions(adminDomain, adminEmail);
+	@ValidateRole(UserRole.ADMIN)
+	public DeleteResultBoundary deleteAllActions(@PathVariable String adminDomain, @PathVariable String adminEmail) {
+		return new DeleteResultBoundary(this.actionService.deleteAllActions(adminDomain, adminEmail));
 	}
 
 	@RequestMapping(path = "/users/{adminDomain}/{adminEmail}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
 	public UserBoundary[] exportAllUsers(@PathVariable String adminDomain, @PathVariable String adminEmail,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor, HttpServletResponse response) {
+		if (cursor != null) {
+			return NextCursor.write(this.userService.getAllUsersAfter(adminDomain, adminEmail, cursor, size), response)
+					.toArray(new UserBoundary[0]);
+		}
 		return this.userService.getAllUsers(adminDomain, adminEmail, size, page).toArray(new UserBoundary[0]);
 	}
 
 	@RequestMapping(path = "/actions/{adminDomain}/{adminEmail}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
 	public ActionBoundary[] exportAllActions(@PathVariable String adminDomain, @PathVariable String adminEmail,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor, HttpServletResponse response) {
+		if (cursor != null) {
+			return NextCursor
+					.write(this.actionService.getAllActionsAfter(adminDomain, adminEmail, cursor, size), response)
+					.toArray(new ActionBoundary[0]);
+		}
 		return this.actionService.getAllActions(adminDomain, adminEmail, size, page).toArray(new ActionBoundary[0]);
 	}
 
+	// from is inclusive, to is exclusive, both ISO-8601 date-times
+	@RequestMapping(path = "/actions/{adminDomain}/{adminEmail}/byCreated", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
+	public ActionBoundary[] getActionsCreatedBetween(@PathVariable String adminDomain, @PathVariable String adminEmail,
+			@RequestParam(name = "from") @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+			@RequestParam(name = "to") @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
+		return this.actionService.getActionsCreatedBetween(adminDomain, adminEmail, from, to, size, page)
+				.toArray(new ActionBoundary[0]);
+	}
+
+	// keyset listings in creation order over a [from, to) window, the last 24
+	// hours when it is not given; the next page is named by the X-Next-Cursor header
+	@RequestMapping(path = "/actions/{adminDomain}/{adminEmail}/byElement/{elementDomain}/{elementId}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
+	public ActionBoundary[] getActionsOfElement(@PathVariable String adminDomain, @PathVariable String adminEmail,
+			@PathVariable String elementDomain, @PathVariable String elementId,
+			@RequestParam(name = "type", required = false) String type,
+			@RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+			@RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
+			@RequestParam(name = "cursor", required = false) String cursor, HttpServletResponse response) {
+		return NextCursor.write(this.actionService.getActionsOfElement(adminDomain, adminEmail, elementDomain,
+				elementId, type, from, to, cursor, size), response).toArray(new ActionBoundary[0]);
+	}
+
+	@RequestMapping(path = "/actions/{adminDomain}/{adminEmail}/byInvoker/{userDomain}/{userEmail}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
+	public ActionBoundary[] getActionsOfInvoker(@PathVariable String adminDomain, @PathVariable String adminEmail,
+			@PathVariable String userDomain, @PathVariable String userEmail,
+			@RequestParam(name = "type", required = false) String type,
+			@RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+			@RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
+			@RequestParam(name = "cursor", required = false) String cursor, HttpServletResponse response) {
+		return NextCursor.write(this.actionService.getActionsOfInvoker(adminDomain, adminEmail, userDomain,
+				userEmail, type, from, to, cursor, size), response).toArray(new ActionBoundary[0]);
+	}
+
+	@RequestMapping(path = "/actions/{adminDomain}/{adminEmail}/byType/{type}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
+	public ActionBoundary[] getActionsOfType(@PathVariable String adminDomain, @PathVariable String adminEmail,
+			@PathVariable String type,
+			@RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+			@RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
+			@RequestParam(name = "cursor", required = false) String cursor, HttpServletResponse response) {
+		return NextCursor.write(
+				this.actionService.getActionsOfType(adminDomain, adminEmail, type, from, to, cursor, size), response)
+				.toArray(new ActionBoundary[0]);
+	}
+
+	// one JSON document per line, written while the table is still being read
+	@RequestMapping(path = "/users/{adminDomain}/{adminEmail}", method = RequestMethod.GET, params = NDJSON_FORMAT, produces = NDJSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
+	public ResponseEntity<StreamingResponseBody> streamAllUsers(@PathVariable String adminDomain,
+			@PathVariable String adminEmail) {
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE))
+				.body(out -> this.userService.exportAllUsers(adminDomain, adminEmail,
+						user -> writeLine(out, this.userWriter, user)));
+	}
+
+	@RequestMapping(path = "/actions/{adminDomain}/{adminEmail}", method = RequestMethod.GET, params = NDJSON_FORMAT, produces = NDJSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
+	public ResponseEntity<StreamingResponseBody> streamAllActions(@PathVariable String adminDomain,
+			@PathVariable String adminEmail) {
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE))
+				.body(out -> this.actionService.exportAllActions(adminDomain, adminEmail,
+						action -> writeLine(out, this.actionWriter, action)));
+	}
+
+	@RequestMapping(path = "/actions/queue/{adminDomain}/{adminEmail}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.ADMIN)
+	public ActionQueueBoundary getActionQueue(@PathVariable String adminDomain, @PathVariable String adminEmail) {
+		return this.actionService.getActionQueue(adminDomain, adminEmail);
+	}
+
+	private static void writeLine(OutputStream out, ObjectWriter writer, Object value) {
+		try {
+			out.write(writer.writeValueAsBytes(value));
+			out.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 }
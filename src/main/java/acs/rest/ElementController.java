@@ -1,21 +1,37 @@
 package acs.rest;
 
+import java.util.Date;
+
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import acs.aop.ValidateRole;
 import acs.boundaries.ElementBoundary;
 import acs.boundaries.details.ElementId;
+import acs.data.UserRole;
 import acs.logic.DBElementService;
+import acs.logic.database.exceptions.UnknownSearchModeException;
 
 @RestController
 @RequestMapping("/acs/elements")
 public class ElementController {
+	// box: distance is the half-width of a lat/lng box in degrees
+	// radius: distance is a great-circle radius in metres, nearest first
+	private static final String BOX_MODE = "box";
+	private static final String RADIUS_MODE = "radius";
+
 	private DBElementService elementService;
 
 	@Autowired
@@ -24,15 +40,23 @@ public class ElementController {
 	}
 
 	@RequestMapping(path = "/{userDomain}/{userEmail}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary[] getAllElements(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "fields", required = false) String fields, HttpServletResponse response) {
+		if (cursor != null) {
+			return ElementFields.project(
+					NextCursor.write(elementService.getAllAfter(userDomain, userEmail, cursor, size), response), fields);
+		}
 		// GETs all elements created by a given user according to the URL
-		return elementService.getAll(userDomain, userEmail, size, page).toArray(new ElementBoundary[0]);
+		return ElementFields.project(elementService.getAll(userDomain, userEmail, size, page), fields);
 	}
 
 	@RequestMapping(path = "/{userDomain}/{userEmail}/{elementDomain}/{elementId}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary getSpecificElement(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail, @PathVariable("elementDomain") String elementDomain,
 			@PathVariable("elementId") String elementId) {
@@ -41,6 +65,7 @@ public class ElementController {
 
 	// POST new element
 	@RequestMapping(path = "/{managerDomain}/{managerEmail}", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.MANAGER)
 	public ElementBoundary createNewElement(@PathVariable("managerDomain") String managerDomain,
 			@PathVariable("managerEmail") String managerEmail, @RequestBody ElementBoundary elementBoundary) {
 		return elementService.create(managerDomain, managerEmail, elementBoundary);
@@ -48,14 +73,27 @@ public class ElementController {
 
 	// PUT update an element
 	@RequestMapping(path = "/{managerDomain}/{managerEmail}/{elementDomain}/{elementId}", method = RequestMethod.PUT, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.MANAGER)
 	public void updateAnElement(@PathVariable("managerDomain") String managerDomain,
 			@PathVariable("managerEmail") String managerEmail, @PathVariable("elementDomain") String elementDomain,
 			@PathVariable("elementId") String elementId, @RequestBody ElementBoundary elementBoundry) {
 		elementService.update(managerDomain, managerEmail, elementDomain, elementId, elementBoundry);
 	}
 
+	// PATCH only the given fields and attributes of an element, a null attribute
+	// is removed
+	@RequestMapping(path = "/{managerDomain}/{managerEmail}/{elementDomain}/{elementId}", method = RequestMethod.PATCH, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.MANAGER)
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void patchAnElement(@PathVariable("managerDomain") String managerDomain,
+			@PathVariable("managerEmail") String managerEmail, @PathVariable("elementDomain") String elementDomain,
+			@PathVariable("elementId") String elementId, @RequestBody ElementBoundary patch) {
+		elementService.patch(managerDomain, managerEmail, elementDomain, elementId, patch);
+	}
+
 	// PUT update an element
 	@RequestMapping(path = "/{managerDomain}/{managerEmail}/{elementDomain}/{elementId}/children", method = RequestMethod.PUT, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole(UserRole.MANAGER)
 	public void bindElementToChild(@PathVariable("managerDomain") String managerDomain,
 			@PathVariable("managerEmail") String managerEmail, @PathVariable("elementDomain") String elementDomain,
 			@PathVariable("elementId") String elementId, @RequestBody ElementId elementChildrenId) {
@@ -69,67 +107,176 @@ public class ElementController {
 	}
 
 	@RequestMapping(path = "/{userDomain}/{userEmail}/{elementDomain}/{elementId}/children", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary[] getAllChildrenElements(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail, @PathVariable("elementDomain") String elementDomain,
 			@PathVariable("elementId") String elementId,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "fields", required = false) String fields, HttpServletResponse response) {
+		if (cursor != null) {
+			return ElementFields.project(NextCursor.write(this.elementService.getAllChildrenAfter(userDomain,
+					userEmail, elementDomain, elementId, cursor, size), response), fields);
+		}
 
 		// GETs all children of an existing element, created by a given user according
 		// to the URL
-		return this.elementService.getAllChildren(userDomain, userEmail, elementDomain, elementId, size, page)
-				.toArray(new ElementBoundary[0]);
+		return ElementFields.project(
+				this.elementService.getAllChildren(userDomain, userEmail, elementDomain, elementId, size, page), fields);
 	}
 
 	@RequestMapping(path = "/{userDomain}/{userEmail}/{elementDomain}/{elementId}/parents", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary[] getAllParentElements(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail, @PathVariable("elementDomain") String elementDomain,
 			@PathVariable("elementId") String elementId,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "fields", required = false) String fields) {
+
+		return ElementFields.project(
+				this.elementService.getParent(userDomain, userEmail, elementDomain, elementId, size, page), fields);
+	}
+
+	@RequestMapping(path = "/{userDomain}/{userEmail}/{elementDomain}/{elementId}/ancestors", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
+	public ElementBoundary[] getAncestorElements(@PathVariable("userDomain") String userDomain,
+			@PathVariable("userEmail") String userEmail, @PathVariable("elementDomain") String elementDomain,
+			@PathVariable("elementId") String elementId,
+			@RequestParam(name = "fields", required = false) String fields) {
+		// from the root of the tree down to the father of the element
+		return ElementFields.project(
+				this.elementService.getAncestors(userDomain, userEmail, elementDomain, elementId), fields);
+	}
 
-		return this.elementService.getParent(userDomain, userEmail, elementDomain, elementId, size, page)
-				.toArray(new ElementBoundary[0]);
+	@RequestMapping(path = "/{userDomain}/{userEmail}/{elementDomain}/{elementId}/descendants", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
+	public ElementBoundary[] getDescendantElements(@PathVariable("userDomain") String userDomain,
+			@PathVariable("userEmail") String userEmail, @PathVariable("elementDomain") String elementDomain,
+			@PathVariable("elementId") String elementId,
+			@RequestParam(name = "depth", required = false, defaultValue = "2") int depth,
+			@RequestParam(name = "fields", required = false) String fields) {
+		// the whole tree below an element, e.g. a feeding area with its bowls
+		return ElementFields.project(
+				this.elementService.getDescendants(userDomain, userEmail, elementDomain, elementId, depth), fields);
 	}
 
 	// search
 	@RequestMapping(path = "/{userDomain}/{userEmail}/search/byName/{name}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary[] getElementsWithElementName(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail, @PathVariable("name") String name,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
-		return this.elementService.getElementsWithElementName(userDomain, userEmail, name, size, page)
-				.toArray(new ElementBoundary[0]);
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "fields", required = false) String fields, HttpServletResponse response) {
+		if (cursor != null) {
+			return ElementFields.project(NextCursor.write(this.elementService
+					.getElementsWithElementNameAfter(userDomain, userEmail, name, cursor, size), response), fields);
+		}
+		return ElementFields.project(
+				this.elementService.getElementsWithElementName(userDomain, userEmail, name, size, page), fields);
 	}
 
 	@RequestMapping(path = "/{userDomain}/{userEmail}/search/byType/{type}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary[] getElementsWithElementType(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail, @PathVariable("type") String type,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
-		return this.elementService.getElementsWithElementType(userDomain, userEmail, type, size, page)
-				.toArray(new ElementBoundary[0]);
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "fields", required = false) String fields, HttpServletResponse response) {
+		if (cursor != null) {
+			return ElementFields.project(NextCursor.write(this.elementService
+					.getElementsWithElementTypeAfter(userDomain, userEmail, type, cursor, size), response), fields);
+		}
+		return ElementFields.project(
+				this.elementService.getElementsWithElementType(userDomain, userEmail, type, size, page), fields);
+	}
+
+	@RequestMapping(path = "/{userDomain}/{userEmail}/search/byAttribute/{name}/{value}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
+	public ElementBoundary[] getElementsWithAttribute(@PathVariable("userDomain") String userDomain,
+			@PathVariable("userEmail") String userEmail, @PathVariable("name") String name,
+			@PathVariable("value") String value, @RequestParam(name = "type", required = false) String type,
+			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "fields", required = false) String fields) {
+		// e.g. the empty food bowls: byAttribute/state/false?type=food_bowl
+		return ElementFields.project(
+				this.elementService.getElementsWithAttribute(userDomain, userEmail, name, value, type, size, page),
+				fields);
+	}
+
+	// from is inclusive, to is exclusive, both ISO-8601 date-times
+	@RequestMapping(path = "/{userDomain}/{userEmail}/search/byCreated", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
+	public ElementBoundary[] getElementsCreatedBetween(@PathVariable("userDomain") String userDomain,
+			@PathVariable("userEmail") String userEmail,
+			@RequestParam(name = "from") @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+			@RequestParam(name = "to") @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "fields", required = false) String fields) {
+		return ElementFields.project(
+				this.elementService.getElementsCreatedBetween(userDomain, userEmail, from, to, size, page), fields);
 	}
 
 	@RequestMapping(path = "/{userDomain}/{userEmail}/search/near/{lat}/{lng}/{distance}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary[] getElementsNearBy(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail, @PathVariable("lat") double lat,
 			@PathVariable("lng") double lng, @PathVariable("distance") double distance,
+			@RequestParam(name = "mode", required = false, defaultValue = BOX_MODE) String mode,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
-		return this.elementService.getElementsNearBy(userDomain, userEmail, lat, lng, distance, size, page)
-				.toArray(new ElementBoundary[0]);
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "fields", required = false) String fields, HttpServletResponse response) {
+		if (isRadiusMode(mode)) {
+			return ElementFields.project(this.elementService
+					.getElementsWithinRadius(userDomain, userEmail, lat, lng, distance, null, size, page), fields);
+		}
+		if (cursor != null) {
+			return ElementFields.project(NextCursor.write(this.elementService.getElementsNearByAfter(userDomain,
+					userEmail, lat, lng, distance, cursor, size), response), fields);
+		}
+		return ElementFields.project(
+				this.elementService.getElementsNearBy(userDomain, userEmail, lat, lng, distance, size, page), fields);
 	}
 
 	@RequestMapping(path = "/{userDomain}/{userEmail}/search/typeNearby/{lat}/{lng}/{distance}/{type}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ValidateRole({ UserRole.MANAGER, UserRole.PLAYER })
 	public ElementBoundary[] getElementsWithElementTypeNearBy(@PathVariable("userDomain") String userDomain,
 			@PathVariable("userEmail") String userEmail, @PathVariable("lat") double lat,
 			@PathVariable("lng") double lng, @PathVariable("distance") double distance,
 			@PathVariable("type") String type,
+			@RequestParam(name = "mode", required = false, defaultValue = BOX_MODE) String mode,
 			@RequestParam(name = "size", required = false, defaultValue = "20") int size,
-			@RequestParam(name = "page", required = false, defaultValue = "0") int page) {
-		return this.elementService
-				.getElementsWithElementTypeNearBy(userDomain, userEmail, lat, lng, distance, type, size, page)
-				.toArray(new ElementBoundary[0]);
+			@RequestParam(name = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "fields", required = false) String fields, HttpServletResponse response) {
+		if (isRadiusMode(mode)) {
+			return ElementFields.project(this.elementService
+					.getElementsWithinRadius(userDomain, userEmail, lat, lng, distance, type, size, page), fields);
+		}
+		if (cursor != null) {
+			return ElementFields.project(NextCursor.write(this.elementService.getElementsWithElementTypeNearByAfter(
+					userDomain, userEmail, lat, lng, distance, type, cursor, size), response), fields);
+		}
+		return ElementFields.project(this.elementService
+				.getElementsWithElementTypeNearBy(userDomain, userEmail, lat, lng, distance, type, size, page), fields);
+	}
+
+	// an unknown mode is rejected rather than read as a box, where a distance in
+	// metres would be taken for degrees
+	private static boolean isRadiusMode(String mode) {
+		if (RADIUS_MODE.equals(mode)) {
+			return true;
+		} else if (BOX_MODE.equals(mode)) {
+			return false;
+		} else {
+			throw new UnknownSearchModeException(mode, BOX_MODE, RADIUS_MODE);
+		}
 	}
 }
@@ -0,0 +1,65 @@
+package acs.rest;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.details.CreatedBy;
+import acs.boundaries.details.ElementId;
+import acs.boundaries.details.Location;
+import acs.logic.database.exceptions.UnknownFieldException;
+
+// fields=elementId,name,type,location keeps only the listed fields of every
+// element; the others are omitted from the response, and attributes that are
+// left out are never parsed
+final class ElementFields {
+	private static final List<String> NAMES = Arrays.asList("elementId", "type", "name", "active",
+			"createdTimestamp", "createdBy", "location", "elementAttributes");
+
+	private ElementFields() {
+	}
+
+	static ElementBoundary[] project(Collection<ElementBoundary> elements, String fields) {
+		ElementBoundary[] projected = elements.toArray(new ElementBoundary[0]);
+		if (fields == null || fields.isEmpty()) {
+			return projected;
+		}
+		Set<String> kept = new HashSet<>();
+		for (String field : fields.split(",")) {
+			if (!NAMES.contains(field.trim())) {
+				throw new UnknownFieldException(field.trim(), NAMES);
+			}
+			kept.add(field.trim());
+		}
+		for (int i = 0; i < projected.length; i++) {
+			ElementBoundary element = projected[i];
+			projected[i] = new ProjectedElement(kept.contains("elementId") ? element.getElementId() : null,
+					kept.contains("type") ? element.getType() : null,
+					kept.contains("name") ? element.getName() : null,
+					kept.contains("active") ? element.getActive() : null,
+					kept.contains("createdTimestamp") ? element.getCreatedTimestamp() : null,
+					kept.contains("createdBy") ? element.getCreatedBy() : null,
+					kept.contains("location") ? element.getLocation() : null,
+					kept.contains("elementAttributes") ? element.getElementAttributes() : null);
+		}
+		return projected;
+	}
+
+	// Jackson serializes array items by their runtime class, so only projected
+	// elements drop their null fields
+	@JsonInclude(Include.NON_NULL)
+	static class ProjectedElement extends ElementBoundary {
+		ProjectedElement(ElementId elementId, String type, String name, Boolean active, Date createdTimestamp,
+				CreatedBy createdBy, Location location, Map<String, Object> elementAttributes) {
+			super(elementId, type, name, active, createdTimestamp, createdBy, location, elementAttributes);
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package acs.rest;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import acs.logic.KeysetPage;
+
+// keyset listings return the cursor of the following page in a response header,
+// so the body keeps the same array shape as the page/size listings
+final class NextCursor {
+	static final String HEADER = "X-Next-Cursor";
+
+	private NextCursor() {
+	}
+
+	static <T> List<T> write(KeysetPage<T> page, HttpServletResponse response) {
+		if (page.getNextCursor() != null) {
+			response.setHeader(HEADER, page.getNextCursor());
+		}
+		return page.getContent();
+	}
+}
@@ -0,0 +1,115 @@
+package acs.action;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.client.RestTemplate;
+
+import acs.boundaries.details.ActionId;
+import acs.dal.ActionOutboxDao;
+import acs.data.ActionOutboxEntity;
+import acs.data.ActionStatus;
+import acs.data.details.ActionEntityId;
+import acs.logic.DBActionService;
+import util.DeleteTestUtil;
+
+// the poller and the sweep are held back, the test drives them itself
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"acs.actions.async.poll-interval-ms=3600000", "acs.actions.async.sweep-interval-ms=3600000" })
+class ActionOutboxLeaseTest {
+	private int port;
+	private String url;
+	private RestTemplate restTemplate;
+	private ActionOutboxDao actionOutboxDao;
+	private DBActionService actionService;
+
+	@Value("${spring.application.name:default}")
+	private String appDomain;
+
+	@Autowired
+	public void setActionOutboxDao(ActionOutboxDao actionOutboxDao) {
+		this.actionOutboxDao = actionOutboxDao;
+	}
+
+	@Autowired
+	public void setActionService(DBActionService actionService) {
+		this.actionService = actionService;
+	}
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.url = "http://localhost:" + this.port + "/acs";
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setup() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@AfterEach
+	public void teardown() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@Test
+	void testOnlyExpiredLeasesAreRequeuedOrClaimed() {
+		// GIVEN an entry another instance is still working on and one whose lease
+		// ran out
+		long now = System.currentTimeMillis();
+		ActionEntityId live = claimedEntry("live", new Date(now + 3600000));
+		ActionEntityId expired = claimedEntry("expired", new Date(now - 60000));
+
+		// WHEN the leases are swept and the workers claim what they can
+		int requeued = this.actionService.requeueExpiredLeases();
+		List<ActionId> claimed = this.actionService.claimQueuedActions(10);
+
+		// THEN only the expired entry was requeued and claimed again
+		assertThat(requeued).isEqualTo(1);
+		assertThat(claimed).extracting(ActionId::getId).containsExactly(expired.getId());
+		ActionOutboxEntity liveEntry = this.actionOutboxDao.findById(live).get();
+		assertThat(liveEntry.getStatus()).isEqualTo(ActionStatus.PROCESSING);
+		assertThat(liveEntry.getClaimedBy()).isEqualTo("other-instance");
+		assertThat(this.actionOutboxDao.findById(expired).get().getClaimedBy()).isNotEqualTo("other-instance");
+	}
+
+	@Test
+	void testDoneIsNotWrittenWithoutTheLease() {
+		// GIVEN an entry claimed by another instance
+		ActionEntityId live = claimedEntry("live", new Date(System.currentTimeMillis() + 3600000));
+
+		// WHEN this instance reports it failed
+		this.actionService.failQueuedAction(new ActionId(live.getDomain(), live.getId()), "failed", false);
+
+		// THEN the entry stays with the instance holding the lease
+		ActionOutboxEntity entry = this.actionOutboxDao.findById(live).get();
+		assertThat(entry.getStatus()).isEqualTo(ActionStatus.PROCESSING);
+		assertThat(entry.getAttempts()).isZero();
+	}
+
+	private ActionEntityId claimedEntry(String id, Date leaseExpires) {
+		ActionEntityId actionId = new ActionEntityId(this.appDomain, id);
+		ActionOutboxEntity entry = new ActionOutboxEntity(actionId, ActionStatus.PROCESSING, new Date());
+		entry.setClaimedBy("other-instance");
+		entry.setLeaseExpiresTimestamp(leaseExpires);
+		this.actionOutboxDao.save(entry);
+		return actionId;
+	}
+}
@@ -0,0 +1,188 @@
+package acs.action;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import acs.boundaries.ActionBoundary;
+import acs.boundaries.ActionStatusBoundary;
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.UserBoundary;
+import acs.boundaries.details.ActionId;
+import acs.boundaries.details.CreatedBy;
+import acs.boundaries.details.Element;
+import acs.boundaries.details.InvokedBy;
+import acs.boundaries.details.Location;
+import acs.boundaries.details.NewUserDetails;
+import acs.boundaries.details.UserRole;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class AsyncActionTests {
+
+	private int port;
+	private String url;
+	private RestTemplate restTemplate;
+	private String adminEmail;
+	private String managerEmail;
+	private String playerEmail;
+
+	@Value("${spring.application.name:default}")
+	private String appDomain;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.url = "http://localhost:" + this.port + "/acs";
+		this.restTemplate = new RestTemplate();
+		this.adminEmail = "admin@email.feeder";
+		this.managerEmail = "manager@email.feeder";
+		this.playerEmail = "player@email.feeder";
+	}
+
+	@BeforeEach
+	public void setup() {
+		deleteAllDatabases();
+	}
+
+	@AfterEach
+	public void teardown() {
+		deleteAllDatabases();
+	}
+
+	@Test
+	void testAsyncAddFeedingAreaIsAcceptedAndAppliedByTheWorkers() throws InterruptedException {
+		// GIVEN the server contains a manager, a player and a map
+		ElementBoundary map = postManagerAndMap();
+		UserBoundary player = createPlayer();
+
+		// WHEN the player invokes add-feeding_area asynchronously
+		ResponseEntity<ActionId> response = this.restTemplate.postForEntity(this.url + "/actions?async=true",
+				addFeedingAreaAction(map, player), ActionId.class);
+
+		// THEN the action is accepted before it is applied
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(response.getBody().getId()).isNotNull();
+
+		// AND it eventually completes and the feeding area is bound to the map
+		ActionStatusBoundary status = waitForCompletion(player, response.getBody());
+		assertThat(status.getStatus()).isEqualTo("DONE");
+		assertThat(getChildrenOf(map)).hasSize(1);
+	}
+
+	@Test
+	void testAsyncActionThatCannotBeAppliedFailsWithoutRetries() throws InterruptedException {
+		// GIVEN the server contains a manager, a player and an inactive map
+		ElementBoundary map = postManagerAndMap(false);
+		UserBoundary player = createPlayer();
+
+		// WHEN the player invokes add-feeding_area on it asynchronously
+		ActionId actionId = this.restTemplate.postForObject(this.url + "/actions?async=true",
+				addFeedingAreaAction(map, player), ActionId.class);
+
+		// THEN the action fails on its first attempt, and not as a role mismatch
+		ActionStatusBoundary status = waitForCompletion(player, actionId);
+		assertThat(status.getStatus()).isEqualTo("FAILED");
+		assertThat(status.getAttempts()).isEqualTo(1);
+		assertThat(status.getMessage()).contains("could not be applied");
+		assertThat(getChildrenOf(map)).isEmpty();
+	}
+
+	@Test
+	void testAsyncActionOfUnknownTypeIsRejectedBeforeItIsQueued() {
+		// GIVEN the server contains a manager, a player and a map
+		ElementBoundary map = postManagerAndMap();
+		UserBoundary player = createPlayer();
+		ActionBoundary action = addFeedingAreaAction(map, player);
+		action.setType("no-such_action");
+
+		// WHEN the player invokes it asynchronously
+		// THEN the request is rejected
+		assertThrows(Exception.class,
+				() -> this.restTemplate.postForEntity(this.url + "/actions?async=true", action, ActionId.class));
+	}
+
+	private ActionStatusBoundary waitForCompletion(UserBoundary player, ActionId actionId) throws InterruptedException {
+		ActionStatusBoundary status = null;
+		for (int i = 0; i < 50; i++) {
+			status = this.restTemplate.getForObject(
+					this.url + "/actions/{userDomain}/{userEmail}/{actionDomain}/{actionId}/status",
+					ActionStatusBoundary.class, player.getUserId().getDomain(), player.getUserId().getEmail(),
+					actionId.getDomain(), actionId.getId());
+			if (status.getStatus().equals("DONE") || status.getStatus().equals("FAILED")) {
+				return status;
+			}
+			Thread.sleep(100);
+		}
+		return status;
+	}
+
+	private ActionBoundary addFeedingAreaAction(ElementBoundary map, UserBoundary player) {
+		Map<String, Object> actionAttributes = new TreeMap<>();
+		actionAttributes.put("managerDomain", this.appDomain);
+		actionAttributes.put("managerEmail", this.managerEmail);
+		actionAttributes.put("elementName", "feeding_area");
+		actionAttributes.put("elementLat", 3);
+		actionAttributes.put("elementLng", 4);
+		actionAttributes.put("fullFoodBowl", 0);
+		actionAttributes.put("fullWaterBowl", 0);
+		return new ActionBoundary(null, "add-feeding_area", new Element(map.getElementId()), null,
+				new InvokedBy(player.getUserId()), actionAttributes);
+	}
+
+	private ElementBoundary[] getChildrenOf(ElementBoundary element) {
+		return this.restTemplate.getForObject(
+				this.url + "/elements/{userDomain}/{userEmail}/{elementDomain}/{elementId}/children",
+				ElementBoundary[].class, this.appDomain, this.managerEmail, element.getElementId().getDomain(),
+				element.getElementId().getId());
+	}
+
+	private ElementBoundary postManagerAndMap() {
+		return postManagerAndMap(true);
+	}
+
+	private ElementBoundary postManagerAndMap(boolean active) {
+		UserBoundary manager = this.restTemplate.postForObject(this.url + "/users",
+				new NewUserDetails(this.managerEmail, UserRole.MANAGER, "manager_name", "manager_avatar"),
+				UserBoundary.class);
+		ElementBoundary mapBoundary = new ElementBoundary(null, "maptype", "map", active, new Date(),
+				new CreatedBy(manager.getUserId()), new Location(3, 4), new TreeMap<String, Object>());
+		return this.restTemplate.postForObject(this.url + "/elements/{managerDomain}/{managerEmail}", mapBoundary,
+				ElementBoundary.class, this.appDomain, this.managerEmail);
+	}
+
+	private UserBoundary createPlayer() {
+		return this.restTemplate.postForObject(this.url + "/users",
+				new NewUserDetails(this.playerEmail, UserRole.PLAYER, "player_name", "player_avatar"),
+				UserBoundary.class);
+	}
+
+	private void deleteAllDatabases() {
+		this.restTemplate.postForObject(this.url + "/users",
+				new NewUserDetails(this.adminEmail, UserRole.ADMIN, "adminName", "adminAvatar"), UserBoundary.class);
+		this.restTemplate.delete(this.url + "/admin/actions/{adminDomain}/{adminEmail}", this.appDomain,
+				this.adminEmail);
+		this.restTemplate.delete(this.url + "/admin/elements/{adminDomain}/{adminEmail}", this.appDomain,
+				this.adminEmail);
+		this.restTemplate.delete(this.url + "/admin/users/{adminDomain}/{adminEmail}", this.appDomain, this.adminEmail);
+	}
+}
@@ -0,0 +1,175 @@
+package acs.action;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import acs.boundaries.ActionBoundary;
+import acs.boundaries.ActionResultBoundary;
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.UserBoundary;
+import acs.boundaries.details.CreatedBy;
+import acs.boundaries.details.Element;
+import acs.boundaries.details.InvokedBy;
+import acs.boundaries.details.Location;
+import acs.boundaries.details.NewUserDetails;
+import acs.boundaries.details.UserId;
+import acs.boundaries.details.UserRole;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class BatchActionTests {
+
+	private int port;
+	private String url;
+	private RestTemplate restTemplate;
+	private String adminEmail;
+	private String managerEmail;
+	private String playerEmail;
+
+	@Value("${spring.application.name:default}")
+	private String appDomain;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.url = "http://localhost:" + this.port + "/acs";
+		this.restTemplate = new RestTemplate();
+		this.adminEmail = "admin@email.feeder";
+		this.managerEmail = "manager@email.feeder";
+		this.playerEmail = "player@email.feeder";
+	}
+
+	@BeforeEach
+	public void setup() {
+		deleteAllDatabases();
+	}
+
+	@AfterEach
+	public void teardown() {
+		deleteAllDatabases();
+	}
+
+	@Test
+	void testBatchOfActionsReportsAResultPerItemInOrder() {
+		// GIVEN the server contains a manager, a player and a map
+		ElementBoundary map = postManagerAndMap();
+		UserBoundary player = createPlayer();
+		ActionBoundary unknownAction = addFeedingAreaAction(map, player);
+		unknownAction.setType("no-such_action");
+
+		// WHEN the player posts two valid actions and an invalid one in one batch
+		ActionResultBoundary[] results = this.restTemplate.postForObject(this.url + "/actions/batch",
+				new ActionBoundary[] { addFeedingAreaAction(map, player), unknownAction,
+						addFeedingAreaAction(map, player) },
+				ActionResultBoundary[].class);
+
+		// THEN only the invalid action is rejected
+		assertThat(results).extracting("status").containsExactly("DONE", "FAILED", "DONE");
+		assertThat(results[0].getActionId()).isNotNull();
+		assertThat(results[1].getActionId()).isNull();
+
+		// AND both feeding areas are bound to the map
+		assertThat(getChildrenOf(map)).hasSize(2);
+	}
+
+	@Test
+	void testBatchOfActionsByNonPlayerIsRejectedPerItem() {
+		// GIVEN the server contains a manager and a map
+		ElementBoundary map = postManagerAndMap();
+		UserBoundary manager = new UserBoundary();
+		manager.setUserId(new UserId(this.appDomain, this.managerEmail));
+
+		// WHEN the manager posts a batch of actions
+		ActionResultBoundary[] results = this.restTemplate.postForObject(this.url + "/actions/batch",
+				new ActionBoundary[] { addFeedingAreaAction(map, manager) }, ActionResultBoundary[].class);
+
+		// THEN the action is rejected and nothing is created
+		assertThat(results).extracting("status").containsExactly("FAILED");
+		assertThat(getChildrenOf(map)).isEmpty();
+	}
+
+	@Test
+	void testBatchIsAllOrNothingWhenApplyingAnItemFails() {
+		// GIVEN the server contains a manager, a player and a map
+		ElementBoundary map = postManagerAndMap();
+		UserBoundary player = createPlayer();
+		ActionBoundary unknownManager = addFeedingAreaAction(map, player);
+		unknownManager.getActionAttributes().put("managerEmail", "nobody@email.feeder");
+
+		// WHEN the player posts a valid action followed by one whose manager does
+		// not exist
+		// THEN the whole batch fails with the item's error
+		assertThrows(HttpClientErrorException.class,
+				() -> this.restTemplate.postForObject(this.url + "/actions/batch",
+						new ActionBoundary[] { addFeedingAreaAction(map, player), unknownManager },
+						ActionResultBoundary[].class));
+
+		// AND the valid action was rolled back too
+		assertThat(getChildrenOf(map)).isEmpty();
+	}
+
+	private ActionBoundary addFeedingAreaAction(ElementBoundary map, UserBoundary player) {
+		Map<String, Object> actionAttributes = new TreeMap<>();
+		actionAttributes.put("managerDomain", this.appDomain);
+		actionAttributes.put("managerEmail", this.managerEmail);
+		actionAttributes.put("elementName", "feeding_area");
+		actionAttributes.put("elementLat", 3);
+		actionAttributes.put("elementLng", 4);
+		actionAttributes.put("fullFoodBowl", 0);
+		actionAttributes.put("fullWaterBowl", 0);
+		return new ActionBoundary(null, "add-feeding_area", new Element(map.getElementId()), null,
+				new InvokedBy(player.getUserId()), actionAttributes);
+	}
+
+	private ElementBoundary[] getChildrenOf(ElementBoundary element) {
+		return this.restTemplate.getForObject(
+				this.url + "/elements/{userDomain}/{userEmail}/{elementDomain}/{elementId}/children",
+				ElementBoundary[].class, this.appDomain, this.managerEmail, element.getElementId().getDomain(),
+				element.getElementId().getId());
+	}
+
+	private ElementBoundary postManagerAndMap() {
+		UserBoundary manager = this.restTemplate.postForObject(this.url + "/users",
+				new NewUserDetails(this.managerEmail, UserRole.MANAGER, "manager_name", "manager_avatar"),
+				UserBoundary.class);
+		ElementBoundary mapBoundary = new ElementBoundary(null, "maptype", "map", true, new Date(),
+				new CreatedBy(manager.getUserId()), new Location(3, 4), new TreeMap<String, Object>());
+		return this.restTemplate.postForObject(this.url + "/elements/{managerDomain}/{managerEmail}", mapBoundary,
+				ElementBoundary.class, this.appDomain, this.managerEmail);
+	}
+
+	private UserBoundary createPlayer() {
+		return this.restTemplate.postForObject(this.url + "/users",
+				new NewUserDetails(this.playerEmail, UserRole.PLAYER, "player_name", "player_avatar"),
+				UserBoundary.class);
+	}
+
+	private void deleteAllDatabases() {
+		this.restTemplate.postForObject(this.url + "/users",
+				new NewUserDetails(this.adminEmail, UserRole.ADMIN, "adminName", "adminAvatar"), UserBoundary.class);
+		this.restTemplate.delete(this.url + "/admin/actions/{adminDomain}/{adminEmail}", this.appDomain,
+				this.adminEmail);
+		this.restTemplate.delete(this.url + "/admin/elements/{adminDomain}/{adminEmail}", this.appDomain,
+				this.adminEmail);
+		this.restTemplate.delete(this.url + "/admin/users/{adminDomain}/{adminEmail}", this.appDomain, this.adminEmail);
+	}
+}
@@ -16,9 +16,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
 import acs.boundaries.ActionBoundary;
+import acs.boundaries.ActionResultBoundary;
 import acs.boundaries.ElementBoundary;
 import acs.boundaries.UserBoundary;
 import acs.boundaries.details.Element;
@@ -374,4 +376,79 @@ class GetAllActionsTest {
 //
 //		return actionAttributes;
 //	}
+
+	@Test
+	public void testGetActionsOfElementWithCursorReturnsEveryActionOfTheElementOnce() throws Exception {
+		// GIVEN a map element with 5 add-feeding_area actions on it
+		ElementBoundary map = ElementTestUtil.randElementBoundary();
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		map.setName("map");
+		map.setType("map");
+		map.setActive(true);
+		map = ElementTestUtil.elementPost(restTemplate, url, map, managerBoundary);
+
+		ActionBoundary actionBoundary = ActionTestUtil.randActionBoundary();
+		UserBoundary playerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createPlayer());
+		actionBoundary.setType("add-feeding_area");
+		actionBoundary.setInvokedBy(new InvokedBy(playerBoundary.getUserId()));
+		actionBoundary.setElement(new Element(map.getElementId()));
+
+		List<ActionBoundary> storedActions = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			actionBoundary.setActionAttributes(ActionTestUtil.randFeedingAreaAttributes(managerBoundary, map));
+			storedActions.add(ActionTestUtil.postAction(restTemplate, url, actionBoundary));
+		}
+
+		// WHEN I follow the X-Next-Cursor header of
+		// /acs/admin/actions/{adminDomain}/{adminEmail}/byElement/{elementDomain}/{elementId}
+		// in pages of 2
+		UserBoundary adminBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createAdmin());
+		List<ActionBoundary> rv = new ArrayList<>();
+		List<Integer> pageSizes = new ArrayList<>();
+		String cursor = "";
+		while (cursor != null) {
+			ResponseEntity<ActionBoundary[]> response = restTemplate.getForEntity(
+					url + "/admin/actions/{adminDomain}/{adminEmail}/byElement/{elementDomain}/{elementId}"
+							+ "?type=add-feeding_area&size=2&cursor={cursor}",
+					ActionBoundary[].class, adminBoundary.getUserId().getDomain(),
+					adminBoundary.getUserId().getEmail(), map.getElementId().getDomain(),
+					map.getElementId().getId(), cursor);
+			rv.addAll(Arrays.asList(response.getBody()));
+			pageSizes.add(response.getBody().length);
+			cursor = response.getHeaders().getFirst("X-Next-Cursor");
+		}
+
+		// THEN the pages hold 2, 2 and 1 actions and together all 5
+		assertThat(pageSizes).containsExactly(2, 2, 1);
+		assertThat(rv).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(storedActions);
+	}
+
+	@Test
+	public void testStreamAllActionsAsNdjsonReadsEveryActionToTheEnd() throws Exception {
+		// GIVEN 300 actions stored by one batch
+		ElementBoundary map = ElementTestUtil.randElementBoundary();
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		map.setType("map");
+		map.setActive(true);
+		map = ElementTestUtil.elementPost(restTemplate, url, map, managerBoundary);
+		UserBoundary playerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createPlayer());
+		ActionBoundary[] batch = new ActionBoundary[300];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = new ActionBoundary(null, "add-feeding_area", new Element(map.getElementId()), null,
+					new InvokedBy(playerBoundary.getUserId()),
+					ActionTestUtil.randFeedingAreaAttributes(managerBoundary, map));
+		}
+		ActionResultBoundary[] results = restTemplate.postForObject(url + "/actions/batch", batch,
+				ActionResultBoundary[].class);
+		assertThat(results).extracting("status").containsOnly("DONE");
+
+		// WHEN I GET /acs/admin/actions/{adminDomain}/{adminEmail}?format=ndjson
+		UserBoundary adminBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createAdmin());
+		ActionBoundary[] rv = ActionTestUtil.streamAllActions(restTemplate, url, adminBoundary);
+
+		// THEN every action arrives, each as a complete line
+		assertThat(rv).hasSize(batch.length);
+		assertThat(rv).extracting(ActionBoundary::getActionId).doesNotContainNull().doesNotHaveDuplicates();
+	}
 }
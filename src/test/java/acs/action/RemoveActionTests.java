@@ -1,8 +1,11 @@
 package acs.action;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -10,16 +13,22 @@ import java.util.Date;
 import java.util.Map;
 import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.PostConstruct;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import acs.boundaries.ActionBoundary;
@@ -31,9 +40,12 @@ import acs.boundaries.details.InvokedBy;
 import acs.boundaries.details.Location;
 import acs.boundaries.details.NewUserDetails;
 import acs.boundaries.details.UserRole;
+import acs.logic.DBElementService;
 
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 class RemoveActionTests {
+	// run once, right before the next DBElementService.update
+	private static volatile Runnable beforeUpdate;
 
 	private int port;
 	private String url;
@@ -46,6 +58,13 @@ class RemoveActionTests {
 	@Value("${spring.application.name:default}")
 	private String appDomain;
 
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
 	@LocalServerPort
 	public void setPort(int port) {
 		this.port = port;
@@ -110,6 +129,34 @@ class RemoveActionTests {
 		assertFalse(getChildrenOf(map)[0].getActive());
 	}
 
+	@Test
+	void testRemoveFeedingAreaKeepsARefillCommittedWhileTheActionRuns() {
+		UserBoundary playerBoundary = createPlayer();
+		ElementBoundary map = this.restTemplate.getForObject(
+				this.url + "/elements/{userDomain}/{userEmail}/search/byName/{name}", ElementBoundary[].class,
+				this.appDomain, this.managerEmail, this.mapName)[0];
+
+		// Given a feeding area with 5 full food bowls
+		addFeedingAreaToMap(map, playerBoundary);
+		ElementBoundary feedingArea = getChildrenOf(map)[0];
+
+		// Removes it while a refill commits after the action loaded it
+		beforeUpdate = () -> CompletableFuture.runAsync(() -> this.jdbcTemplate.update(
+				"UPDATE elements SET full_food_bowl = full_food_bowl + 1 WHERE element_domain = ? AND element_id = ?",
+				feedingArea.getElementId().getDomain(), feedingArea.getElementId().getId())).join();
+		try {
+			postAnAction(new ActionBoundary(null, "remove-feeding_area", new Element(feedingArea.getElementId()),
+					null, new InvokedBy(playerBoundary.getUserId()), feedingAreaActionAttributes()));
+		} finally {
+			beforeUpdate = null;
+		}
+
+		// The refill is kept
+		ElementBoundary removed = getElementById(feedingArea);
+		assertFalse(removed.getActive());
+		assertEquals(6, Integer.parseInt(removed.getElementAttributes().get("fullFoodBowl").toString()));
+	}
+
 	@Test
 	void testRemoveWaterbowlFromNonEmptyDBRemovesSameWaterbowlAndReturnsStatus2xx() {
 		UserBoundary playerBoundary = createPlayer();
@@ -390,4 +437,34 @@ class RemoveActionTests {
 		// Delete all users:
 		this.restTemplate.delete(this.url + "/admin/users/{adminDomain}/{adminEmail}", this.appDomain, this.adminEmail);
 	}
+
+	// wraps the element service so a test can commit a change between the
+	// moment an action loads its target and the moment it writes it
+	@TestConfiguration
+	static class BeforeUpdateHook {
+		@Bean
+		static BeanPostProcessor runBeforeUpdate() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof DBElementService)) {
+						return bean;
+					}
+					return Proxy.newProxyInstance(RemoveActionTests.class.getClassLoader(),
+							new Class<?>[] { DBElementService.class }, (proxy, method, args) -> {
+								Runnable hook = beforeUpdate;
+								if (hook != null && method.getName().equals("update")) {
+									beforeUpdate = null;
+									hook.run();
+								}
+								try {
+									return method.invoke(bean, args);
+								} catch (InvocationTargetException e) {
+									throw e.getCause();
+								}
+							});
+				}
+			};
+		}
+	}
 }
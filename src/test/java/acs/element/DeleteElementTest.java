@@ -13,8 +13,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
 import org.springframework.web.client.RestTemplate;
 
+import acs.boundaries.DeleteResultBoundary;
 import acs.boundaries.ElementBoundary;
 import acs.boundaries.UserBoundary;
 import util.DeleteTestUtil;
@@ -116,4 +118,28 @@ public class DeleteElementTest {
 		assertThat(afterDelete).isEmpty();
 	}
 
+
+	@Test
+	public void testDELETEAllElementsGivenBoundFatherAndChildrenReturnsNumberOfDeletedElements() {
+		// GIVEN A DATABASE with a father element bound to 3 children and 2 more
+		// unrelated elements
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		UserBoundary adminBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createAdmin());
+
+		ElementBoundary father = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		IntStream.range(0, 3).forEach(i -> ElementTestUtil.bindElement(this.restTemplate, this.url, father,
+				ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary)));
+		IntStream.range(0, 2).forEach(i -> ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary));
+
+		// WHEN I DELETE all elements by /acs/admin/elements/{adminDomain}/{adminEmail}
+		DeleteResultBoundary result = this.restTemplate
+				.exchange(this.url + "/admin/elements/{adminDomain}/{adminEmail}", HttpMethod.DELETE, null,
+						DeleteResultBoundary.class, adminBoundary.getUserId().getDomain(),
+						adminBoundary.getUserId().getEmail())
+				.getBody();
+
+		// THEN all 6 elements are reported deleted and none is left
+		assertThat(result.getDeleted()).isEqualTo(6);
+		assertThat(ElementTestUtil.getAllElements(this.restTemplate, this.url, managerBoundary)).isEmpty();
+	}
 }
@@ -0,0 +1,62 @@
+package acs.element;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.client.RestTemplate;
+
+import acs.boundaries.UserBoundary;
+import util.DeleteTestUtil;
+import util.ElementTestUtil;
+import util.UserTestUtil;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class ElementMetricsTest {
+	private int port;
+	private RestTemplate restTemplate;
+	private String url;
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.url = "http://localhost:" + port + "/acs";
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setup() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@AfterEach
+	public void teardown() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@Test
+	public void monitored_service_calls_are_scraped_as_latency_histograms_test() throws Exception {
+		// GIVEN a manager that lists the elements
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementTestUtil.getAllElements(this.restTemplate, this.url, managerBoundary);
+
+		// WHEN I GET /actuator/prometheus
+		String scrape = this.restTemplate.getForObject("http://localhost:" + port + "/actuator/prometheus",
+				String.class);
+
+		// THEN the listing is timed as a histogram of its own
+		assertThat(scrape).contains("acs_method_latency_seconds_bucket{")
+				.contains("method=\"DatabaseElementService.getAll\"");
+	}
+}
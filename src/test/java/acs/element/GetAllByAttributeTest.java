@@ -0,0 +1,124 @@
+package acs.element;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import javax.annotation.PostConstruct;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.UserBoundary;
+import util.DeleteTestUtil;
+import util.ElementTestUtil;
+import util.UserTestUtil;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class GetAllByAttributeTest {
+	private int port;
+	private RestTemplate restTemplate;
+	private String url;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.url = "http://localhost:" + port + "/acs";
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setup() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@AfterEach
+	public void teardown() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@Test
+	public void testGetEmptyFoodBowlsReturnsOnlyFoodBowlsWithStateFalse() throws Exception {
+		// GIVEN a database with 5 empty food bowls, 5 full food bowls and 5 empty
+		// water bowls
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		List<ElementBoundary> emptyFoodBowls = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			emptyFoodBowls.add(postBowl("food_bowl", false, managerBoundary));
+			postBowl("food_bowl", true, managerBoundary);
+			postBowl("water_bowl", false, managerBoundary);
+		}
+
+		// WHEN I GET /{userDomain}/{userEmail}/search/byAttribute/state/false?type=food_bowl
+		ElementBoundary[] rv = ElementTestUtil.getAllElementsByAttribute(restTemplate, url, "state", "false",
+				"food_bowl", managerBoundary);
+
+		// THEN only the empty food bowls are returned
+		assertThat(rv).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(emptyFoodBowls);
+	}
+
+	@Test
+	public void testGetByAttributeThatIsNotIndexedReturnsBadRequest() throws Exception {
+		// GIVEN a manager
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+
+		// WHEN I search on an attribute that was never declared as indexed
+		// THEN the server refuses with 400
+		assertThatThrownBy(() -> ElementTestUtil.getAllElementsByAttribute(restTemplate, url, "color", "red", null,
+				managerBoundary)).isInstanceOf(HttpClientErrorException.BadRequest.class);
+	}
+
+	@Test
+	public void testGetByAttributeIndexedByAnotherInstanceIsServed() throws Exception {
+		// GIVEN a food bowl and an attribute column added behind this instance's back
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary bowl = postBowl("food_bowl", false, managerBoundary);
+		this.jdbcTemplate.execute("ALTER TABLE elements ADD COLUMN attr_otherInstance VARCHAR(255) GENERATED ALWAYS "
+				+ "AS (LEFT(JSON_UNQUOTE(JSON_EXTRACT(element_attributes, '$.brand')), 255)) VIRTUAL");
+		try {
+			// WHEN I search on it
+			ElementBoundary[] rv = ElementTestUtil.getAllElementsByAttribute(restTemplate, url, "otherInstance",
+					"bonzo", null, managerBoundary);
+
+			// THEN the column is found and used
+			assertThat(rv).usingRecursiveFieldByFieldElementComparator().containsExactly(bowl);
+		} finally {
+			this.jdbcTemplate.execute("ALTER TABLE elements DROP COLUMN attr_otherInstance");
+		}
+	}
+
+	private ElementBoundary postBowl(String type, boolean state, UserBoundary managerBoundary) {
+		ElementBoundary bowl = ElementTestUtil.randElementBoundary();
+		bowl.setType(type);
+		bowl.setActive(true);
+		TreeMap<String, Object> attributes = new TreeMap<>();
+		attributes.put("state", state);
+		attributes.put("brand", "bonzo");
+		bowl.setElementAttributes(attributes);
+		return ElementTestUtil.elementPost(restTemplate, url, bowl, managerBoundary);
+	}
+}
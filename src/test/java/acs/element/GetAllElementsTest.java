@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -18,6 +19,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
 import acs.boundaries.ElementBoundary;
@@ -118,6 +120,42 @@ public class GetAllElementsTest {
 				.containsExactlyInAnyOrderElementsOf(storedElements);
 	}
 
+	@Test
+	public void testGetAllElementsWithFieldsReturnsOnlyTheRequestedFields() throws Exception {
+		// GIVEN database which contains 5 elements
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		List<ElementBoundary> storedElements = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			storedElements.add(ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary));
+		}
+
+		// WHEN I GET /{userDomain}/{userEmail}?fields=elementId,name,location
+		ElementBoundary[] rv = ElementTestUtil.getAllElementsWithFields(restTemplate, url, managerBoundary,
+				"elementId,name,location");
+
+		// THEN the server returns the 5 elements with only those fields set
+		assertThat(rv).hasSize(5).allSatisfy(element -> {
+			assertThat(element.getType()).isNull();
+			assertThat(element.getElementAttributes()).isNull();
+		});
+		assertThat(rv).usingElementComparatorOnFields("elementId", "name", "location")
+				.containsExactlyInAnyOrderElementsOf(storedElements);
+	}
+
+	@Test
+	public void testGetAllElementsWithFieldsOmitsTheOtherFieldsFromTheResponse() throws Exception {
+		// GIVEN database which contains an element
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+
+		// WHEN I GET /{userDomain}/{userEmail}?fields=name
+		String rv = restTemplate.getForObject(url + "/elements/{userDomain}/{userEmail}?fields=name", String.class,
+				managerBoundary.getUserId().getDomain(), managerBoundary.getUserId().getEmail());
+
+		// THEN the response holds the name and no other key
+		assertThat(rv).contains("\"name\"").doesNotContain("\"type\"").doesNotContain("\"elementAttributes\"");
+	}
+
 	@Test
 	public void testGetAllElementsFromServerWith30ElementsInDatabaseWillNotReturnArraysOf30SameMessagesTheDefualtSizeOfPageIs20()
 			throws Exception {
@@ -252,4 +290,54 @@ public class GetAllElementsTest {
 				.containsExactlyInAnyOrder(rvPlayer);
 	}
 
+	@Test
+	public void testGetAllElementsWithCursorReturnsEveryElementOnceAndEndsWithoutNextCursor() throws Exception {
+		// GIVEN database which contains 25 elements
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		List<ElementBoundary> storedElements = IntStream.range(0, 25)
+				.mapToObj(i -> ElementTestUtil.elementPost(restTemplate, url, managerBoundary))
+				.collect(Collectors.toList());
+
+		// WHEN I follow the X-Next-Cursor header in pages of 10
+		List<ElementBoundary> rv = new ArrayList<>();
+		List<Integer> pageSizes = new ArrayList<>();
+		String cursor = "";
+		while (cursor != null) {
+			ResponseEntity<ElementBoundary[]> response = restTemplate.getForEntity(
+					url + "/elements/{userDomain}/{userEmail}?size=10&cursor={cursor}", ElementBoundary[].class,
+					managerBoundary.getUserId().getDomain(), managerBoundary.getUserId().getEmail(), cursor);
+			rv.addAll(Arrays.asList(response.getBody()));
+			pageSizes.add(response.getBody().length);
+			cursor = response.getHeaders().getFirst("X-Next-Cursor");
+		}
+
+		// THEN the pages hold 10, 10 and 5 elements and together all 25
+		assertThat(pageSizes).containsExactly(10, 10, 5);
+		assertThat(rv).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(storedElements);
+	}
+
+	@Test
+	public void testGetElementsCreatedBetweenReturnsOnlyElementsCreatedInsideTheWindow() throws Exception {
+		// GIVEN the server is up with a manager
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+
+		// GIVEN database which contains 5 elements created now
+		List<ElementBoundary> storedElements = new ArrayList<>();
+		IntStream.range(0, 5)
+				.forEach(i -> storedElements.add(ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary)));
+		long now = System.currentTimeMillis();
+
+		// WHEN I GET /{userDomain}/{userEmail}/search/byCreated for the last hour and
+		// for the hour before it
+		ElementBoundary[] lastHour = ElementTestUtil.getAllElementsCreatedBetween(restTemplate, url,
+				new Date(now - 3600000), new Date(now + 1000), managerBoundary);
+		ElementBoundary[] hourBefore = ElementTestUtil.getAllElementsCreatedBetween(restTemplate, url,
+				new Date(now - 7200000), new Date(now - 3600000), managerBoundary);
+
+		// THEN only the first window holds the 5 elements
+		assertThat(lastHour).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(storedElements);
+		assertThat(hourBefore).isEmpty();
+	}
 }
@@ -1,6 +1,7 @@
 package acs.element;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,10 +17,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import acs.boundaries.ElementBoundary;
 import acs.boundaries.UserBoundary;
+import acs.boundaries.details.Location;
 import util.DeleteTestUtil;
 import util.ElementTestUtil;
 import util.UserTestUtil;
@@ -201,4 +205,87 @@ public class GetElementsNearByTest {
 		assertThat(rv).usingRecursiveFieldByFieldElementComparator()
 				.containsExactlyInAnyOrderElementsOf(storedElements);
 	}
+
+	@Test
+	public void testGetElementsNearByInRadiusModeReturnsOnlyElementsWithinTheRadiusInMetresNearestFirst()
+			throws Exception {
+		// GIVEN the server is up
+		// do nothing
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+
+		// GIVEN elements about 400m, 100m and 5km north of the search point
+		Double lat = 32.0853, lng = 34.7818, distance = 1000.0;
+		ElementBoundary farther = ElementTestUtil.elementPostAtLocation(restTemplate, url, lat + 0.0036, lng,
+				managerBoundary);
+		ElementBoundary nearest = ElementTestUtil.elementPostAtLocation(restTemplate, url, lat + 0.0009, lng,
+				managerBoundary);
+		ElementTestUtil.elementPostAtLocation(restTemplate, url, lat + 0.045, lng, managerBoundary);
+
+		// WHEN I GET /{userDomain}/{userEmail}/search/near/{lat}/{lng}/{distance}?mode=radius
+		ElementBoundary[] rv = ElementTestUtil.getAllElementsWithinRadius(restTemplate, url, lat, lng, distance,
+				managerBoundary);
+
+		// THEN the server returns the two elements within 1km, nearest first
+		assertThat(rv).usingRecursiveFieldByFieldElementComparator().containsExactly(nearest, farther);
+	}
+
+	@Test
+	public void testGetElementsNearByInRadiusModeRejectsARadiusNoCellsCover() throws Exception {
+		// GIVEN the server contains a manager
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+
+		// WHEN I GET /{userDomain}/{userEmail}/search/near/{lat}/{lng}/{distance}?mode=radius
+		// with a radius of 5000km
+		// THEN the server answers 400 instead of reading every element
+		HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+				() -> ElementTestUtil.getAllElementsWithinRadius(restTemplate, url, 32.0, 34.0, 5000000.0,
+						managerBoundary));
+		assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	public void testGetElementsNearByWithUnknownModeIsRejected() throws Exception {
+		// GIVEN the server contains a manager
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+
+		// WHEN I GET /{userDomain}/{userEmail}/search/near/{lat}/{lng}/{distance}?mode=raduis
+		// THEN the server answers 400 instead of searching a box
+		HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+				() -> restTemplate.getForObject(
+						url + "/elements/{userDomain}/{userEmail}/search/near/{lat}/{lng}/{distance}?mode=raduis",
+						ElementBoundary[].class, managerBoundary.getUserId().getDomain(),
+						managerBoundary.getUserId().getEmail(), 32.0, 34.0, 1000.0));
+		assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	public void testGetElementsNearByAsPlayerReflectsDeactivatedAndMovedElements() throws Exception {
+		// GIVEN the server contains a manager, a player and two active elements
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		UserBoundary playerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createPlayer());
+		Double lat = 20.0, lng = 20.0, distance = 1.0;
+		ElementBoundary first = ElementTestUtil.randElementBoundaryWithSpecificActive(true);
+		first.setLocation(new Location(lat, lng));
+		first = ElementTestUtil.elementPost(restTemplate, url, first, managerBoundary);
+		ElementBoundary second = ElementTestUtil.randElementBoundaryWithSpecificActive(true);
+		second.setLocation(new Location(lat + 0.5, lng + 0.5));
+		second = ElementTestUtil.elementPost(restTemplate, url, second, managerBoundary);
+		assertThat(ElementTestUtil.getAllElementsNearBy(restTemplate, url, lat, lng, distance, playerBoundary))
+				.hasSize(2);
+
+		// WHEN the manager deactivates the first element and moves the second away
+		ElementBoundary deactivate = new ElementBoundary();
+		deactivate.setActive(false);
+		ElementTestUtil.updateElement(restTemplate, url, deactivate, first, managerBoundary);
+		ElementBoundary move = new ElementBoundary();
+		move.setLocation(new Location(lat + 10, lng + 10));
+		ElementTestUtil.updateElement(restTemplate, url, move, second, managerBoundary);
+
+		// THEN the player no longer finds either of them near the original point
+		assertThat(ElementTestUtil.getAllElementsNearBy(restTemplate, url, lat, lng, distance, playerBoundary))
+				.isEmpty();
+		assertThat(ElementTestUtil.getAllElementsNearBy(restTemplate, url, lat + 10, lng + 10, distance,
+				playerBoundary)).usingRecursiveFieldByFieldElementComparator()
+						.containsExactly(ElementTestUtil.getElement(restTemplate, url, managerBoundary, second));
+	}
 }
@@ -0,0 +1,107 @@
+package acs.element;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.client.RestTemplate;
+
+import acs.boundaries.ElementBoundary;
+import acs.boundaries.UserBoundary;
+import util.DeleteTestUtil;
+import util.ElementTestUtil;
+import util.UserTestUtil;
+
+// the outbox poller and sweep are held back so that only the requests under test
+// reach the database
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true", "acs.actions.async.poll-interval-ms=3600000",
+		"acs.actions.async.sweep-interval-ms=3600000" })
+public class RelationsStatementCountTest {
+	private int port;
+	private RestTemplate restTemplate;
+	private String url;
+	private Statistics statistics;
+
+	@Autowired
+	public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@LocalServerPort
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	@PostConstruct
+	public void init() {
+		this.url = "http://localhost:" + port + "/acs";
+		this.restTemplate = new RestTemplate();
+	}
+
+	@BeforeEach
+	public void setup() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@AfterEach
+	public void teardown() {
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
+	}
+
+	@Test
+	public void bind_issues_the_same_statements_however_many_children_the_father_has_test() throws Exception {
+		// GIVEN a father without children and a father with 50 children
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary emptyFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary busyFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		IntStream.range(0, 50).forEach(i -> ElementTestUtil.bindElement(this.restTemplate, this.url, busyFather,
+				ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary)));
+		ElementBoundary firstChild = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary secondChild = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+
+		// WHEN I bind a new child to each of them
+		this.statistics.clear();
+		ElementTestUtil.bindElement(this.restTemplate, this.url, emptyFather, firstChild);
+		long emptyFatherStatements = this.statistics.getPrepareStatementCount();
+
+		this.statistics.clear();
+		ElementTestUtil.bindElement(this.restTemplate, this.url, busyFather, secondChild);
+		long busyFatherStatements = this.statistics.getPrepareStatementCount();
+
+		// THEN both binds issue the same few statements: the two rows, the depth
+		// check and the two updates, and the children are never loaded
+		assertThat(busyFatherStatements).isEqualTo(emptyFatherStatements).isLessThanOrEqualTo(5);
+		assertThat(this.statistics.getCollectionLoadCount()).isZero();
+		assertThat(this.statistics.getEntityLoadCount()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void get_parent_issues_a_single_statement_test() throws Exception {
+		// GIVEN a father with a child
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary elementFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary elementChild = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementTestUtil.bindElement(this.restTemplate, this.url, elementFather, elementChild);
+
+		// WHEN I get the parent of the child
+		this.statistics.clear();
+		ElementBoundary[] parents = ElementTestUtil.getParentOf(this.restTemplate, this.url, elementChild);
+
+		// THEN the father is read with one join query
+		assertThat(parents).usingRecursiveFieldByFieldElementComparator().containsExactly(elementFather);
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
@@ -1,6 +1,7 @@
 package acs.element;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -15,10 +16,13 @@ import javax.annotation.PostConstruct;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import acs.boundaries.ElementBoundary;
@@ -37,6 +41,13 @@ public class RelationsTest {
 	@Value("${spring.application.name:default}")
 	private String appDomain;
 
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
 	@LocalServerPort
 	public void setPort(int port) {
 		this.port = port;
@@ -59,6 +70,22 @@ public class RelationsTest {
 		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
 	}
 
+	@Test
+	public void bind_an_element_without_an_ancestry_path_is_rejected_test() throws Exception {
+		// GIVEN a child left without a path, as the backfill leaves a cycle of bindings
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary elementFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary elementChild = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		this.jdbcTemplate.update("UPDATE elements SET ancestry_path = NULL WHERE element_domain = ? AND element_id = ?",
+				elementChild.getElementId().getDomain(), elementChild.getElementId().getId());
+
+		// WHEN I bind it to a father
+		// THEN the bind is rejected and the child stays unbound
+		assertThrows(HttpClientErrorException.BadRequest.class,
+				() -> ElementTestUtil.bindElement(this.restTemplate, this.url, elementFather, elementChild));
+		assertThat(ElementTestUtil.getChildrenOf(this.restTemplate, this.url, elementFather)).isEmpty();
+	}
+
 	@Test
 	public void bind_two_elements_test() throws Exception {
 		// GIVEN an empty database
@@ -115,6 +142,52 @@ public class RelationsTest {
 				.isEqualTo(ElementTestUtil.getParentOf(this.restTemplate, this.url, elementFather)[0]);
 	}
 
+	@Test
+	public void get_descendants_level_by_level_up_to_depth_test() throws Exception {
+		// GIVEN a grandfather with a father, which has two children
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary elementGrandFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary elementFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary[] children = new ElementBoundary[2];
+		IntStream.range(0, 2)
+				.forEach(i -> children[i] = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary));
+		ElementTestUtil.bindElement(this.restTemplate, this.url, elementGrandFather, elementFather);
+		IntStream.range(0, 2)
+				.forEach(i -> ElementTestUtil.bindElement(this.restTemplate, this.url, elementFather, children[i]));
+
+		// WHEN I get the descendants of the grandfather at depth 1 and depth 2
+		ElementBoundary[] firstLevel = ElementTestUtil.getDescendantsOf(this.restTemplate, this.url,
+				elementGrandFather, 1);
+		ElementBoundary[] twoLevels = ElementTestUtil.getDescendantsOf(this.restTemplate, this.url,
+				elementGrandFather, 2);
+
+		// THEN depth 1 holds the father only and depth 2 adds his children after him
+		assertThat(firstLevel).usingRecursiveFieldByFieldElementComparator().containsExactly(elementFather);
+		assertThat(twoLevels).hasSize(3);
+		assertThat(twoLevels[0]).usingRecursiveComparison().isEqualTo(elementFather);
+		assertThat(Arrays.asList(twoLevels).subList(1, 3)).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrder(children);
+	}
+
+	@Test
+	public void get_ancestors_from_root_after_binding_a_subtree_test() throws Exception {
+		// GIVEN a father with a child, and a separate grandfather
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary elementGrandFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary elementFather = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary elementChild = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementTestUtil.bindElement(this.restTemplate, this.url, elementFather, elementChild);
+
+		// WHEN I bind the father, with his child, to the grandfather
+		ElementTestUtil.bindElement(this.restTemplate, this.url, elementGrandFather, elementFather);
+
+		// THEN the ancestors of the child are listed from the root down and the
+		// grandfather has no ancestors
+		assertThat(ElementTestUtil.getAncestorsOf(this.restTemplate, this.url, elementChild))
+				.usingRecursiveFieldByFieldElementComparator().containsExactly(elementGrandFather, elementFather);
+		assertThat(ElementTestUtil.getAncestorsOf(this.restTemplate, this.url, elementGrandFather)).isEmpty();
+	}
+
 	@Test
 	public void testComplexScenario() throws Exception {
 		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
@@ -4,6 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 import javax.annotation.PostConstruct;
 
@@ -349,4 +352,50 @@ public class UpdateElementTest {
 				() -> ElementTestUtil.updateElement(this.restTemplate, this.url, update, old, playerBoundary));
 	}
 
+	@Test
+	public void test_PATCH_changes_only_the_given_fields_and_attributes() throws Exception {
+		// GIVEN a database with a single element with the attributes a and b
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary element = ElementTestUtil.randElementBoundary();
+		Map<String, Object> attributes = new TreeMap<>();
+		attributes.put("a", "keep");
+		attributes.put("b", "remove");
+		element.setElementAttributes(attributes);
+		ElementBoundary old = ElementTestUtil.elementPost(this.restTemplate, this.url, element, managerBoundary);
+
+		// WHEN I PATCH the name, remove b and add c
+		ElementBoundary patch = new ElementBoundary();
+		patch.setName("patched");
+		Map<String, Object> attributesPatch = new HashMap<>();
+		attributesPatch.put("b", null);
+		attributesPatch.put("c", "new");
+		patch.setElementAttributes(attributesPatch);
+		ElementTestUtil.patchElement(this.url, patch, old, managerBoundary);
+
+		// THEN only the name and those attributes changed
+		ElementBoundary patched = ElementTestUtil.getElement(restTemplate, url, managerBoundary, old);
+		assertThat(patched.getName()).isEqualTo("patched");
+		assertThat(patched.getType()).isEqualTo(old.getType());
+		assertThat(patched.getActive()).isEqualTo(old.getActive());
+		assertThat(patched.getLocation()).usingRecursiveComparison().isEqualTo(old.getLocation());
+		assertThat(patched.getElementAttributes()).containsOnlyKeys("a", "c").containsEntry("a", "keep")
+				.containsEntry("c", "new");
+	}
+
+	@Test
+	public void test_PATCH_element_with_player_user() {
+		// GIVEN a database with a single element
+		UserBoundary managerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createManager());
+		ElementBoundary old = ElementTestUtil.elementPost(this.restTemplate, this.url, managerBoundary);
+		ElementBoundary patch = new ElementBoundary();
+		patch.setName("patched");
+
+		UserBoundary playerBoundary = UserTestUtil.userPost(restTemplate, url, UserTestUtil.createPlayer());
+
+		// WHEN I PATCH /acs/elements/{managerDomain}/{managerEmail}/{elementDomain}/{elementId}
+		// with a NON manager user then an exception would occur
+		assertThrows(RuntimeException.class,
+				() -> ElementTestUtil.patchElement(this.url, patch, old, playerBoundary));
+	}
+
 }
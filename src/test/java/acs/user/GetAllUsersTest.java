@@ -80,6 +80,26 @@ public class GetAllUsersTest {
 				.containsExactlyInAnyOrderElementsOf(storedUsers);
 	}
 
+	@Test
+	public void testGETAllUsersAsNdjsonGivenNonEmptyDatabaseWithExistingAdminReturnsOneUserPerLineWithStatus2xx() {
+		// GIVEN A NON EMPTY DATABASE with an existing admin
+		// WHEN I GET allUsers by /acs/admin/users/{adminDomain}/{adminEmail}?format=ndjson
+		// THEN every stored user is streamed back, one per line
+
+		NewUserDetails adminDetails = UserTestUtil.createAdmin();
+		List<UserBoundary> storedUsers = new ArrayList<>();
+		UserBoundary adminBoundary = UserTestUtil.userPost(restTemplate, url, adminDetails);
+		storedUsers.add(adminBoundary);
+		IntStream.range(0, 5).forEach(i -> storedUsers.add(UserTestUtil.userPost(restTemplate, url,
+				new NewUserDetails("userEmail" + i + "@gmail.com", UserRole.PLAYER, "userName" + i, "avatar" + i))));
+
+		UserBoundary[] allUsers = UserTestUtil.streamAllUsers(restTemplate, adminBoundary.getUserId().getDomain(),
+				adminBoundary.getUserId().getEmail(), url);
+
+		assertThat(allUsers).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(storedUsers);
+	}
+
 	@Test
 	public void testGETAllUsersGivenAnEmptyDatabaseReturnsStatusDifferentFrom2xx() {
 		// GIVEN AN EMPTY DATABASE
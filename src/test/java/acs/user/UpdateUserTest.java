@@ -14,10 +14,13 @@ import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.web.client.RestTemplate;
 
+import acs.boundaries.ElementBoundary;
 import acs.boundaries.UserBoundary;
 import acs.boundaries.details.NewUserDetails;
 import acs.boundaries.details.UserId;
 import acs.boundaries.details.UserRole;
+import util.DeleteTestUtil;
+import util.ElementTestUtil;
 
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 public class UpdateUserTest {
@@ -46,7 +49,7 @@ public class UpdateUserTest {
 
 	@AfterEach
 	public void tearDown() {
-		deleteEveryUser();
+		DeleteTestUtil.deleteAllDatabases(this.restTemplate, this.url);
 	}
 
 	@Test
@@ -220,6 +223,26 @@ public class UpdateUserTest {
 				new UserBoundary(new NewUserDetails("userEmail0@gmail.com", UserRole.PLAYER, "userName", ""))));
 	}
 
+	@Test
+	public void testPUTUserRoleGivenCachedRoleIsReflectedInTheNextRequest() {
+		// GIVEN A PLAYER WHOSE ROLE WAS ALREADY RESOLVED BY THE SERVER
+		// WHEN I PUT the user with a MANAGER role
+		// THEN the user can immediately create elements as a manager
+
+		NewUserDetails details = new NewUserDetails("userEmail@gmail.com", UserRole.PLAYER, "userName", "avatar");
+		UserBoundary boundary = postUser(details);
+		this.restTemplate.getForObject(this.url + "/elements/{userDomain}/{userEmail}", ElementBoundary[].class,
+				boundary.getUserId().getDomain(), boundary.getUserId().getEmail());
+
+		UserBoundary update = new UserBoundary(boundary.getUserId(), UserRole.MANAGER, "userName", "avatar");
+		putUser(boundary.getUserId().getDomain(), boundary.getUserId().getEmail(), update);
+
+		ElementBoundary created = this.restTemplate.postForObject(this.url + "/elements/{managerDomain}/{managerEmail}",
+				ElementTestUtil.randElementBoundary(), ElementBoundary.class, boundary.getUserId().getDomain(),
+				boundary.getUserId().getEmail());
+		assertThat(created.getElementId()).isNotNull();
+	}
+
 	private UserBoundary postUser(NewUserDetails details) {
 		return this.restTemplate.postForObject(this.url + "/users", details, UserBoundary.class);
 	}
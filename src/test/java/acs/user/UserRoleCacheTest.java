@@ -0,0 +1,74 @@
+package acs.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+
+import acs.data.UserRole;
+import acs.data.details.UserEntityId;
+import acs.logic.database.UserRoleCache;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class UserRoleCacheTest {
+	private UserRoleCache roleCache;
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	public void setRoleCache(UserRoleCache roleCache) {
+		this.roleCache = roleCache;
+	}
+
+	@Autowired
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@BeforeEach
+	public void setup() {
+		this.roleCache.invalidateAll();
+	}
+
+	@Test
+	public void role_read_before_an_invalidation_is_not_cached_test() throws Exception {
+		// GIVEN a lookup that read the role before the user was updated
+		UserEntityId userId = new UserEntityId("cache", "demoted@cache.com");
+		long generation = this.roleCache.generationOf(userId);
+		this.roleCache.invalidate(userId);
+
+		// WHEN it caches what it read
+		this.roleCache.put(userId, UserRole.MANAGER, generation);
+
+		// THEN the stale role is dropped, a fresh lookup is cached
+		assertThat(this.roleCache.get(userId)).isNull();
+		this.roleCache.put(userId, UserRole.PLAYER, this.roleCache.generationOf(userId));
+		assertThat(this.roleCache.get(userId)).isEqualTo(UserRole.PLAYER);
+	}
+
+	@Test
+	public void hits_and_misses_are_published_as_metrics_test() throws Exception {
+		// GIVEN the counters as they are
+		double hits = gets("hit");
+		double misses = gets("miss");
+
+		// WHEN a role is looked up before and after it is cached
+		UserEntityId userId = new UserEntityId("cache", "player@cache.com");
+		this.roleCache.get(userId);
+		this.roleCache.put(userId, UserRole.PLAYER, this.roleCache.generationOf(userId));
+		this.roleCache.get(userId);
+
+		// THEN one miss and one hit are counted
+		assertThat(gets("miss")).isEqualTo(misses + 1);
+		assertThat(gets("hit")).isEqualTo(hits + 1);
+		assertThat(this.meterRegistry.get("cache.size").tag("cache", "user-role").gauge().value()).isEqualTo(1);
+	}
+
+	private double gets(String result) {
+		return this.meterRegistry.get("cache.gets").tag("cache", "user-role").tag("result", result).functionCounter()
+				.count();
+	}
+}
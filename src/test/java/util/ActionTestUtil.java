@@ -1,5 +1,8 @@
 package util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Map;
 import java.util.Random;
@@ -8,6 +11,8 @@ import java.util.stream.IntStream;
 
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import acs.boundaries.ActionBoundary;
 import acs.boundaries.ElementBoundary;
 import acs.boundaries.UserBoundary;
@@ -76,6 +81,21 @@ public class ActionTestUtil {
 				ActionBoundary[].class, UserBoundary.getUserId().getDomain(), UserBoundary.getUserId().getEmail());
 	}
 
+	// GET the NDJSON export to its end, one ActionBoundary per line
+	public static ActionBoundary[] streamAllActions(RestTemplate restTemplate, String url,
+			UserBoundary adminBoundary) {
+		String body = restTemplate.getForObject(url + "/admin/actions/{adminDomain}/{adminEmail}?format=ndjson",
+				String.class, adminBoundary.getUserId().getDomain(), adminBoundary.getUserId().getEmail());
+		ObjectMapper mapper = new ObjectMapper();
+		return Arrays.stream(body.split("\n")).map(line -> {
+			try {
+				return mapper.readValue(line, ActionBoundary.class);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}).toArray(ActionBoundary[]::new);
+	}
+
 	public static void deleteActions(RestTemplate restTemplate, String url, UserBoundary adminBoundary) {
 		restTemplate.delete(url + "/admin/actions/{adminDomain}/{adminEmail}", adminBoundary.getUserId().getDomain(),
 				adminBoundary.getUserId().getEmail());
@@ -1,11 +1,14 @@
 package util;
 
+import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
 import java.util.Random;
+import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.stream.IntStream;
 
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import acs.boundaries.ElementBoundary;
@@ -134,6 +137,13 @@ public class ElementTestUtil {
 				ElementBoundary[].class, userBoundary.getUserId().getDomain(), userBoundary.getUserId().getEmail());
 	}
 
+	public static ElementBoundary[] getAllElementsWithFields(RestTemplate restTemplate, String url,
+			UserBoundary userBoundary, String fields) {
+		return restTemplate.getForObject(url + "/elements/{userDomain}/{userEmail}?fields={fields}",
+				ElementBoundary[].class, userBoundary.getUserId().getDomain(), userBoundary.getUserId().getEmail(),
+				fields);
+	}
+
 	public static ElementBoundary[] getAllElementsByName(RestTemplate restTemplate, String url, String name,
 			UserBoundary userBoundary) {
 		return restTemplate.getForObject(url + "/elements/{userDomain}/{userEmail}/search/byName/{name}",
@@ -164,6 +174,42 @@ public class ElementTestUtil {
 				type);
 	}
 
+	public static ElementBoundary[] getAllElementsByAttribute(RestTemplate restTemplate, String url, String name,
+			String value, String type, UserBoundary userBoundary) {
+		return restTemplate.getForObject(
+				url + "/elements/{userDomain}/{userEmail}/search/byAttribute/{name}/{value}?type={type}",
+				ElementBoundary[].class, userBoundary.getUserId().getDomain(), userBoundary.getUserId().getEmail(),
+				name, value, type);
+	}
+
+	public static ElementBoundary[] getAllElementsCreatedBetween(RestTemplate restTemplate, String url, Date from,
+			Date to, UserBoundary userBoundary) {
+		SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+		iso.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return restTemplate.getForObject(
+				url + "/elements/{userDomain}/{userEmail}/search/byCreated?from={from}&to={to}",
+				ElementBoundary[].class, userBoundary.getUserId().getDomain(), userBoundary.getUserId().getEmail(),
+				iso.format(from), iso.format(to));
+	}
+
+	public static ElementBoundary[] getAllElementsWithinRadius(RestTemplate restTemplate, String url, Double lat,
+			Double lng, Double distanceMeters, UserBoundary userBoundary) {
+		return restTemplate.getForObject(
+				url + "/elements/{userDomain}/{userEmail}/search/near/{lat}/{lng}/{distance}?mode=radius",
+				ElementBoundary[].class, userBoundary.getUserId().getDomain(), userBoundary.getUserId().getEmail(), lat,
+				lng, distanceMeters);
+	}
+
+	// POST an element at a specific location
+	public static ElementBoundary elementPostAtLocation(RestTemplate restTemplate, String url, Double lat, Double lng,
+			UserBoundary userBoundary) {
+		ElementBoundary element = randElementBoundary();
+		element.getLocation().setLat(lat);
+		element.getLocation().setLng(lng);
+		return restTemplate.postForObject(url + "/elements/{managerDomain}/{managerEmail}", element,
+				ElementBoundary.class, userBoundary.getUserId().getDomain(), userBoundary.getUserId().getEmail());
+	}
+
 	public static ElementBoundary[] getAllElementsNearBy(RestTemplate restTemplate, String url, double lat, double lng,
 			double distance, UserBoundary userBoundary) {
 		return restTemplate.getForObject(url + "/elements/{userDomain}/{userEmail}/search/near/{lat}/{lng}/{distance}",
@@ -205,6 +251,15 @@ public class ElementTestUtil {
 				oldBoundary.getElementId().getDomain(), oldBoundary.getElementId().getId());
 	}
 
+	// PATCH needs a request factory that supports it, the JDK one does not
+	public static void patchElement(String url, ElementBoundary patch, ElementBoundary element,
+			UserBoundary managerBoundary) {
+		new RestTemplate(new HttpComponentsClientHttpRequestFactory()).patchForObject(
+				url + "/elements/{managerDomain}/{managerEmail}/{elementDomain}/{elementId}", patch, Void.class,
+				managerBoundary.getUserId().getDomain(), managerBoundary.getUserId().getEmail(),
+				element.getElementId().getDomain(), element.getElementId().getId());
+	}
+
 	public static void bindElement(RestTemplate restTemplate, String url, ElementBoundary father,
 			ElementBoundary child) {
 		restTemplate.put(url + "/elements/{managerDomain}/{managerEmail}/{elementDomain}/{elementId}/children",
@@ -236,6 +291,24 @@ public class ElementTestUtil {
 				elementFather.getElementId().getId());
 	}
 
+	public static ElementBoundary[] getAncestorsOf(RestTemplate restTemplate, String url,
+			ElementBoundary element) {
+		return restTemplate.getForObject(
+				url + "/elements/{userDomain}/{userEmail}/{elementDomain}/{elementId}/ancestors",
+				ElementBoundary[].class, element.getCreatedBy().getUserId().getDomain(),
+				element.getCreatedBy().getUserId().getEmail(), element.getElementId().getDomain(),
+				element.getElementId().getId());
+	}
+
+	public static ElementBoundary[] getDescendantsOf(RestTemplate restTemplate, String url,
+			ElementBoundary elementFather, int depth) {
+		return restTemplate.getForObject(
+				url + "/elements/{userDomain}/{userEmail}/{elementDomain}/{elementId}/descendants?depth={depth}",
+				ElementBoundary[].class, elementFather.getCreatedBy().getUserId().getDomain(),
+				elementFather.getCreatedBy().getUserId().getEmail(), elementFather.getElementId().getDomain(),
+				elementFather.getElementId().getId(), depth);
+	}
+
 	// make a random ElementBoundary
 	public static ElementBoundary randElementBoundaryWithSpecificActive(Boolean isActive) {
 		Random rand = new Random();
@@ -1,9 +1,14 @@
 package util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Random;
 
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import acs.boundaries.UserBoundary;
 import acs.boundaries.details.NewUserDetails;
 import acs.boundaries.details.UserRole;
@@ -73,6 +78,21 @@ public class UserTestUtil {
 				UserBoundary[].class, adminDomain, adminEmail);
 	}
 
+	// GET the NDJSON export, one UserBoundary per line
+	public static UserBoundary[] streamAllUsers(RestTemplate restTemplate, String adminDomain, String adminEmail,
+			String url) {
+		String body = restTemplate.getForObject(url + "/admin/users/{adminDomain}/{adminEmail}?format=ndjson",
+				String.class, adminDomain, adminEmail);
+		ObjectMapper mapper = new ObjectMapper();
+		return Arrays.stream(body.split("\n")).map(line -> {
+			try {
+				return mapper.readValue(line, UserBoundary.class);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}).toArray(UserBoundary[]::new);
+	}
+
 	public static NewUserDetails createAdmin() {
 		NewUserDetails newUserDetails = randNewUserBoundary();
 		newUserDetails.setRole(UserRole.ADMIN);